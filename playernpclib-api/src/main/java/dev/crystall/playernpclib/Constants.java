@@ -1,5 +1,7 @@
 package dev.crystall.playernpclib;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * Created by CrystallDEV on 01/10/2020
  */
@@ -11,6 +13,27 @@ public class Constants {
 
   public static final String NPC_TEAM_NAME = "PlayerNPCLibNPCS";
   public static final int NPC_VISIBILITY_RANGE = 50;
+  // Extra distance a player has to move away before a shown npc gets hidden again
+  public static final double NPC_VISIBILITY_HYSTERESIS = 8;
   public static final double NPC_LOOK_AT_RADIUS = 5;
+  public static final int NPC_SPATIAL_CELL_SIZE = 16;
+  // Npcs within this range of a player are updated every tick
+  public static final double NPC_NEAR_PLAYER_RANGE = 16;
+  // Update periods in ticks for npcs without a player nearby
+  public static final int NPC_DEFAULT_UPDATE_PERIOD = 5;
+  public static final int NPC_MOVABLE_UPDATE_PERIOD = 2;
+  // Update period for movable npcs that are not shown to anyone, they only sync their location
+  public static final int NPC_IDLE_UPDATE_PERIOD = 20;
+  public static final long NPC_TICK_BUDGET_NANOS = 2_000_000L;
+  // Ticks after which a full teleport is sent instead of relative moves, same as the vanilla entity tracker
+  public static final int NPC_MOVEMENT_RESYNC_PERIOD = 400;
+  // Default time in milliseconds between two accepted clicks of a player on npcs
+  public static final long NPC_INTERACT_COOLDOWN_MILLIS = 50;
+  // Ticks after which the player info entry of a shown npc gets removed again, the client needs it to load the skin
+  public static final int NPC_PLAYER_INFO_REMOVE_DELAY = 40;
+  // File in the data folder of the plugin the fetched skins are kept in
+  public static final String SKIN_CACHE_FILE_NAME = "skins.cache";
+  public static final long SKIN_CACHE_TTL_MILLIS = TimeUnit.DAYS.toMillis(30);
+  public static final int SKIN_CACHE_MAX_ENTRIES = 4096;
 
 }
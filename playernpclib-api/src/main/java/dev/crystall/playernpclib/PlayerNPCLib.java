@@ -2,11 +2,13 @@ package dev.crystall.playernpclib;
 
 import static org.bukkit.Bukkit.getServer;
 
+import dev.crystall.playernpclib.api.skin.SkinFetcher;
 import dev.crystall.playernpclib.api.utility.Utils;
 import dev.crystall.playernpclib.manager.EntityHidePolicy;
 import dev.crystall.playernpclib.manager.EntityHider;
 import dev.crystall.playernpclib.manager.EntityManager;
 import dev.crystall.playernpclib.manager.EventManager;
+import dev.crystall.playernpclib.nms_v1_20_R2.VersionWrapperProvider;
 import dev.crystall.playernpclib.wrapper.MinecraftVersions;
 import dev.crystall.playernpclib.wrapper.WrapperFactory;
 import lombok.Getter;
@@ -60,6 +62,8 @@ public class PlayerNPCLib {
     String versionName = plugin.getServer().getClass().getPackage().getName().split("\\.")[3];
     checkServerVersion(versionName);
     createManager();
+    // Skins fetched before the restart are available without network access
+    SkinFetcher.loadCache(plugin.getDataFolder());
     // Create the scoreboard for the npcs to be in
     createNPCScoreboards();
 
@@ -68,6 +72,7 @@ public class PlayerNPCLib {
 
   public void onDisable() {
     log.info("Disabling PlayerNPCLib....");
+    SkinFetcher.closeCache();
   }
 
   private void createNPCScoreboards() {
@@ -96,6 +101,8 @@ public class PlayerNPCLib {
       return;
     }
 
+    // The version the api is compiled against creates its wrappers directly, the others are resolved by name
+    WrapperFactory.registerProvider(new VersionWrapperProvider());
     if (!WrapperFactory.init(serverVersion)) {
       logUnsupportedServerVersion(versionName);
       return;
@@ -115,11 +122,11 @@ public class PlayerNPCLib {
   }
 
   public static boolean isNPC(Entity e) {
-    return EntityManager.getPlayerNPCList().stream().anyMatch(npc -> npc.getEntityId() == e.getEntityId());
+    return isNPC(e.getEntityId());
   }
 
   public static boolean isNPC(int entityId) {
-    return EntityManager.getPlayerNPCList().stream().anyMatch(npc -> npc.getEntityId() == entityId);
+    return EntityManager.isNPCEntityId(entityId);
   }
 
 }
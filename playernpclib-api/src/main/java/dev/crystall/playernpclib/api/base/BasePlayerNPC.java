@@ -1,14 +1,18 @@
 package dev.crystall.playernpclib.api.base;
 
+import com.comphenix.protocol.events.PacketContainer;
 import com.comphenix.protocol.wrappers.EnumWrappers.ItemSlot;
 import com.comphenix.protocol.wrappers.WrappedGameProfile;
-import com.comphenix.protocol.wrappers.WrappedSignedProperty;
 import com.google.common.base.Preconditions;
 import dev.crystall.playernpclib.Constants;
 import dev.crystall.playernpclib.PlayerNPCLib;
+import dev.crystall.playernpclib.api.event.ClickType;
+import dev.crystall.playernpclib.api.event.NPCInteractEvent;
 import dev.crystall.playernpclib.api.skin.PlayerSkin;
+import dev.crystall.playernpclib.api.utility.IntBitSet;
 import dev.crystall.playernpclib.manager.EntityManager;
 import dev.crystall.playernpclib.manager.PacketManager;
+import dev.crystall.playernpclib.manager.PlayerSlots;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.EnumMap;
@@ -17,7 +21,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.stream.Collectors;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import net.kyori.adventure.text.Component;
@@ -33,6 +39,12 @@ import org.bukkit.inventory.ItemStack;
 @Getter
 public abstract class BasePlayerNPC {
 
+  // Changes that have not been sent to the viewers yet, see flushChanges
+  protected static final int DIRTY_MOVEMENT = 1;
+  protected static final int DIRTY_EQUIPMENT = 1 << 1;
+  protected static final int DIRTY_DISPLAY_NAME = 1 << 2;
+  protected static final int DIRTY_SKIN = 1 << 3;
+
   private final String internalName;
   private String displayName;
   private List<String> subNames = new ArrayList<>();
@@ -52,7 +64,29 @@ public abstract class BasePlayerNPC {
   protected boolean lookAtClosestPlayer = true;
 
   protected boolean visibilityRestricted = false;
-  protected Set<UUID> shownTo = new HashSet<>();
+  // Slots of the players this npc is shown to, see PlayerSlots
+  @Getter(AccessLevel.NONE)
+  protected final IntBitSet viewerSlots = new IntBitSet();
+
+  /**
+   * The distance in blocks at which this npc gets shown to players. Once shown, it only gets hidden again when the player is further away than
+   * the {@link #getHideDistance() hide distance}.
+   */
+  protected double viewDistance = Constants.NPC_VISIBILITY_RANGE;
+
+  @Getter(AccessLevel.NONE)
+  private int dirtyFlags = 0;
+
+  @Getter(AccessLevel.NONE)
+  private WrappedGameProfile gameProfile;
+
+  // Packets a new viewer needs to see this npc, built on first use and dropped whenever the location, equipment or skin changes
+  @Getter(AccessLevel.NONE)
+  private List<PacketContainer> spawnPackets;
+
+  // cooldown in milliseconds by click type ordinal, read from the netty threads
+  @Getter(AccessLevel.NONE)
+  private final AtomicLongArray interactCooldowns = new AtomicLongArray(ClickType.values().length);
 
   protected BasePlayerNPC(String displayName, Location location, boolean visibilityRestricted) {
     this(displayName, location);
@@ -66,6 +100,9 @@ public abstract class BasePlayerNPC {
     this.hologram = (TextDisplay) location.getWorld().spawnEntity(location.add(0,2.25,0), EntityType.TEXT_DISPLAY);
     hologram.setVisibleByDefault(false);
     this.internalName = uuid.toString().substring(0, 16);
+    for (ClickType clickType : ClickType.values()) {
+      interactCooldowns.set(clickType.ordinal(), Constants.NPC_INTERACT_COOLDOWN_MILLIS);
+    }
     setDisplayName(displayName);
   }
 
@@ -96,7 +133,8 @@ public abstract class BasePlayerNPC {
       this.hologram.remove();
     }
 
-    for (Player player : getVisibleTo()) {
+    // Every viewer, no matter how far away, has to free its slot and entity hider entry
+    for (Player player : getViewers()) {
       PacketManager.sendDeathMetaData(player, this);
       hide(player);
     }
@@ -108,21 +146,29 @@ public abstract class BasePlayerNPC {
   }
 
   public void show(Player player) {
-    if (shownTo.contains(player.getUniqueId())) {
+    if (isShownTo(player)) {
       return;
     }
     init(player);
   }
 
   public void init(Player player) {
-    if (shownTo.contains(player.getUniqueId())) {
+    PlayerSlots playerSlots = PlayerNPCLib.getEntityManager().getPlayerSlots();
+    int slot = playerSlots.allocate(player);
+    if (!viewerSlots.add(slot)) {
       return;
     }
-    shownTo.add(player.getUniqueId());
+    playerSlots.addShown(slot, this);
+    if (viewerSlots.size() == 1) {
+      onViewersChanged();
+    }
     PlayerNPCLib.getEntityHider().setVisibility(player, getEntityId(), true);
+    // The new viewer starts at the current location, so the other viewers have to be synced to it as well
+    PlayerNPCLib.getEntityManager().getMovementEncoder().reset(this);
+    // The client needs the player info entry before the spawn to show the skin
+    PlayerNPCLib.getEntityManager().getPlayerInfoEntries().add(player, this);
     PacketManager.sendNPCCreatePackets(player, this);
-    PacketManager.sendEquipmentPackets(player, this);
-    PacketManager.sendScoreBoardTeamPacket(player, this);
+    PlayerNPCLib.getEntityManager().getTeamMembers().add(player, getInternalName());
     if (hologram != null) {
       player.showEntity(PlayerNPCLib.getPlugin(), hologram);
       updateDisplayName();
@@ -130,10 +176,10 @@ public abstract class BasePlayerNPC {
   }
 
   public void hide(Player player) {
-    if (!shownTo.contains(player.getUniqueId())) {
+    if (!isShownTo(player)) {
       return;
     }
-    shownTo.remove(player.getUniqueId());
+    removeViewer(player.getUniqueId());
     PacketManager.sendHidePackets(player, this);
     PlayerNPCLib.getEntityHider().setVisibility(player, getEntityId(), false);
     if (hologram != null) {
@@ -141,14 +187,77 @@ public abstract class BasePlayerNPC {
     }
   }
 
+  /**
+   * Removes the player from the viewers of this npc without sending any packets, e.g. because the player left the server
+   *
+   * @param uuid the uuid of the player
+   */
+  public void removeViewer(UUID uuid) {
+    PlayerSlots playerSlots = PlayerNPCLib.getEntityManager().getPlayerSlots();
+    int slot = playerSlots.getSlot(uuid);
+    if (slot == -1 || !viewerSlots.remove(slot)) {
+      return;
+    }
+    playerSlots.removeShown(slot, this);
+    if (viewerSlots.isEmpty()) {
+      onViewersChanged();
+    }
+  }
+
+  /**
+   * @return true if this npc is currently shown to at least one player
+   */
+  public boolean hasViewers() {
+    return !viewerSlots.isEmpty();
+  }
+
+  /**
+   * Checks if this npc is shown to the player. This can be called from any thread.
+   *
+   * @param player the player
+   * @return true if the npc is shown to the player
+   */
+  public boolean isShownTo(Player player) {
+    return isShownTo(player.getUniqueId());
+  }
+
+  /**
+   * Checks if this npc is shown to the player. This can be called from any thread.
+   *
+   * @param uuid the uuid of the player
+   * @return true if the npc is shown to the player
+   */
+  public boolean isShownTo(UUID uuid) {
+    int slot = PlayerNPCLib.getEntityManager().getPlayerSlots().getSlot(uuid);
+    return slot != -1 && viewerSlots.contains(slot);
+  }
+
+  /**
+   * @return an unmodifiable snapshot of the uuids of the players this npc is shown to
+   * @deprecated changes to the returned set never affected the viewers, use {@link #show(Player)} and {@link #hide(Player)} to change them and
+   * {@link #isShownTo(UUID)} or {@link #getViewers()} to query them
+   */
+  @Deprecated
+  public Set<UUID> getShownTo() {
+    Set<UUID> shownTo = new HashSet<>();
+    for (Player player : getViewers()) {
+      shownTo.add(player.getUniqueId());
+    }
+    return Collections.unmodifiableSet(shownTo);
+  }
+
+  private void onViewersChanged() {
+    PlayerNPCLib.getEntityManager().getTickScheduler().updateViewers(this);
+  }
+
   public void setDisplayName(String displayName) {
     this.displayName = displayName;
-    updateDisplayName();
+    markDirty(DIRTY_DISPLAY_NAME);
   }
 
   public void setSubNames(List<String> subNames) {
     this.subNames = subNames;
-    updateDisplayName();
+    markDirty(DIRTY_DISPLAY_NAME);
   }
 
   private void updateDisplayName() {
@@ -182,18 +291,21 @@ public abstract class BasePlayerNPC {
         .warning(String.format("Unable to play animation for npc: %s-%s! NPC not spawned", this.getDisplayName(), this.getUuid()));
       return;
     }
-    for (Player player : getVisibleTo()) {
-      PacketManager.sendAnimationPacket(player, this, animationId);
-    }
+    PacketManager.broadcastAnimationPacket(getViewers(), this, animationId);
   }
 
+  /**
+   * @return the game profile of this npc with its skin. The profile is cached until the skin changes and should not be modified.
+   */
   public WrappedGameProfile getGameProfile() {
-    WrappedGameProfile wrappedGameProfile = new WrappedGameProfile(uuid, internalName);
-    if (playerSkin != null) {
-      wrappedGameProfile.getProperties().get("textures").clear();
-      wrappedGameProfile.getProperties().put("textures", new WrappedSignedProperty("textures", playerSkin.getValue(), playerSkin.getSignature()));
+    if (gameProfile == null) {
+      WrappedGameProfile wrappedGameProfile = new WrappedGameProfile(uuid, internalName);
+      if (playerSkin != null) {
+        wrappedGameProfile.getProperties().put("textures", playerSkin.toProperty());
+      }
+      gameProfile = wrappedGameProfile;
     }
-    return wrappedGameProfile;
+    return gameProfile;
   }
 
   /**
@@ -207,47 +319,199 @@ public abstract class BasePlayerNPC {
     Preconditions.checkNotNull(slot, "slot cannot be NULL.");
 
     itemSlots.put(slot, itemStack);
+    invalidateSpawnPackets();
     if (isSpawned) {
-      for (Player player : getVisibleTo()) {
-        PacketManager.sendEquipmentPackets(player, this);
-      }
+      markDirty(DIRTY_EQUIPMENT);
     }
   }
 
   public void setPlayerSkin(PlayerSkin playerSkin) {
-    this.playerSkin = playerSkin;
+    this.playerSkin = PlayerSkin.intern(playerSkin);
+    this.gameProfile = null;
+    invalidateSpawnPackets();
     if (isSpawned) {
-      for (Player player : getVisibleTo()) {
-        this.update(player);
-      }
+      markDirty(DIRTY_SKIN);
     }
   }
 
+  /**
+   * Sets the minimum time between two clicks of a player with the given click type that trigger an {@link NPCInteractEvent}
+   *
+   * @param clickType the click type
+   * @param cooldownMillis the cooldown in milliseconds
+   */
+  public void setInteractCooldown(ClickType clickType, long cooldownMillis) {
+    Preconditions.checkNotNull(clickType, "clickType cannot be NULL.");
+    Preconditions.checkArgument(cooldownMillis >= 0, "cooldownMillis cannot be negative.");
+    interactCooldowns.set(clickType.ordinal(), cooldownMillis);
+  }
+
+  /**
+   * @param clickType the click type
+   * @return the cooldown in milliseconds between two clicks with the given click type
+   */
+  public long getInteractCooldown(ClickType clickType) {
+    return interactCooldowns.get(clickType.ordinal());
+  }
+
   public void setLocation(Location location, boolean update) {
+    Location previous = this.location;
     this.location = location;
+    if (!isSamePosition(previous, location)) {
+      invalidateSpawnPackets();
+    }
+    PlayerNPCLib.getEntityManager().getSpatialIndex().update(this);
+    if (previous == null || previous.getWorld() != location.getWorld() || previous.getBlockX() != location.getBlockX()
+      || previous.getBlockY() != location.getBlockY() || previous.getBlockZ() != location.getBlockZ()) {
+      // Check the exact view distances, crossing a cell border alone is too coarse
+      PlayerNPCLib.getEntityManager().getInterestManager().updateNPC(this);
+    }
     updateHologram();
     if (update) {
-      for (Player player : getVisibleTo()) {
-        PacketManager.sendMovePacket(player, this);
-      }
+      markDirty(DIRTY_MOVEMENT);
     }
   }
 
   public void setEyeLocation(Location location, boolean update) {
+    Location previous = this.eyeLocation;
     this.eyeLocation = location;
+    if (!isSamePosition(previous, location)) {
+      invalidateSpawnPackets();
+    }
     if (update) {
-      for (Player player : getVisibleTo()) {
-        PacketManager.sendMovePacket(player, this);
+      markDirty(DIRTY_MOVEMENT);
+    }
+  }
+
+  /**
+   * @return whether both locations are separate objects with the same world, coordinates and rotation. The same object might have been
+   * changed in place, so it never counts as the same position.
+   */
+  private static boolean isSamePosition(Location previous, Location location) {
+    return previous != null && previous != location && previous.getWorld() == location.getWorld() && previous.getX() == location.getX()
+      && previous.getY() == location.getY() && previous.getZ() == location.getZ() && previous.getYaw() == location.getYaw()
+      && previous.getPitch() == location.getPitch();
+  }
+
+  /**
+   * @return the packets a new viewer needs to see this npc, bundled into a single packet on newer versions. They are shared between all
+   * viewers and only rebuilt after a change.
+   */
+  public List<PacketContainer> getSpawnPackets() {
+    if (spawnPackets == null) {
+      spawnPackets = PacketManager.createSpawnPackets(this);
+    }
+    return spawnPackets;
+  }
+
+  /**
+   * Drops the cached spawn packets, has to be called whenever something they contain changes
+   */
+  protected void invalidateSpawnPackets() {
+    spawnPackets = null;
+  }
+
+  /**
+   * Remembers a change that has to be sent to the viewers. All changes of a tick are sent together at the end of the tick.
+   *
+   * @param flag the DIRTY_* flag of the change
+   */
+  protected void markDirty(int flag) {
+    if (dirtyFlags == 0) {
+      PlayerNPCLib.getEntityManager().markDirty(this);
+    }
+    dirtyFlags |= flag;
+  }
+
+  /**
+   * Drops all changes since the last flush without sending them. Has to be called whenever the npc leaves the dirty queue without being
+   * flushed, otherwise it is never queued again.
+   */
+  public void clearChanges() {
+    dirtyFlags = 0;
+  }
+
+  /**
+   * Sends all changes since the last flush to the viewers. A new skin respawns the npc, which already includes everything else.
+   */
+  public void flushChanges() {
+    int flags = dirtyFlags;
+    dirtyFlags = 0;
+    if ((flags & DIRTY_DISPLAY_NAME) != 0) {
+      updateDisplayName();
+    }
+    if (!isSpawned) {
+      return;
+    }
+    if ((flags & DIRTY_SKIN) != 0) {
+      for (Player player : getViewers()) {
+        this.update(player);
       }
+      return;
+    }
+    if ((flags & DIRTY_EQUIPMENT) != 0) {
+      PacketManager.broadcastEquipmentPackets(getViewers(), this);
+    }
+    if ((flags & DIRTY_MOVEMENT) != 0) {
+      sendMovement();
+    }
+  }
+
+  /**
+   * Sends the movement since the last update to all viewers. Nothing is sent if the npc did not move or rotate.
+   */
+  public void sendMovement() {
+    List<PacketContainer> packets = PlayerNPCLib.getEntityManager().getMovementEncoder().encode(this);
+    if (packets.isEmpty()) {
+      return;
     }
+    PacketManager.broadcastPackets(getViewers(), packets);
+  }
+
+  /**
+   * @return the online players this npc is currently shown to
+   */
+  public List<Player> getViewers() {
+    PlayerSlots playerSlots = PlayerNPCLib.getEntityManager().getPlayerSlots();
+    List<Player> viewers = new ArrayList<>(viewerSlots.size());
+    viewerSlots.forEach(slot -> {
+      Player player = playerSlots.getPlayer(slot);
+      if (player != null) {
+        viewers.add(player);
+      }
+    });
+    return viewers;
+  }
+
+  /**
+   * Overrides the distance at which this npc is shown to players. Small npcs (e.g. signs) can use a smaller distance than landmarks.
+   *
+   * @param viewDistance the distance in blocks
+   */
+  public void setViewDistance(double viewDistance) {
+    Preconditions.checkArgument(viewDistance > 0, "viewDistance has to be positive.");
+    this.viewDistance = viewDistance;
+    PlayerNPCLib.getEntityManager().getInterestManager().updateViewDistance(this);
+  }
+
+  /**
+   * @return the distance in blocks a player has to be away from this npc before it gets hidden again
+   */
+  public double getHideDistance() {
+    return viewDistance + Constants.NPC_VISIBILITY_HYSTERESIS;
   }
 
   public void setVisibilityRestricted(boolean visibilityRestricted) {
     this.visibilityRestricted = visibilityRestricted;
-    if (!visibilityRestricted) {
-      this.shownTo.clear();
+    if (!visibilityRestricted && !this.viewerSlots.isEmpty()) {
+      PlayerSlots playerSlots = PlayerNPCLib.getEntityManager().getPlayerSlots();
+      this.viewerSlots.forEach(slot -> playerSlots.removeShown(slot, this));
+      this.viewerSlots.clear();
+      onViewersChanged();
     }
     hologram.setViewRange(visibilityRestricted ? 0 : Constants.NPC_VISIBILITY_RANGE);
+    // Lets the interest manager show and watch (or stop watching) the npc right away
+    PlayerNPCLib.getEntityManager().getInterestManager().updateNPC(this);
   }
 
   /**
@@ -258,7 +522,7 @@ public abstract class BasePlayerNPC {
   protected Set<Player> getVisibleTo() {
     var stream = location.getNearbyPlayers(Constants.NPC_VISIBILITY_RANGE).stream();
     if (visibilityRestricted) {
-      stream = stream.filter(p -> getShownTo().contains(p.getUniqueId()));
+      stream = stream.filter(this::isShownTo);
     }
     return stream.collect(Collectors.toSet());
   }
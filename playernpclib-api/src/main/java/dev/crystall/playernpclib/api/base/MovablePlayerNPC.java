@@ -1,10 +1,8 @@
 package dev.crystall.playernpclib.api.base;
 
 import com.comphenix.protocol.wrappers.EnumWrappers.ItemSlot;
-import dev.crystall.playernpclib.Constants;
 import dev.crystall.playernpclib.PlayerNPCLib;
 import dev.crystall.playernpclib.api.utility.Utils;
-import dev.crystall.playernpclib.manager.PacketManager;
 import lombok.Getter;
 import lombok.Setter;
 import org.bukkit.Bukkit;
@@ -82,9 +80,8 @@ public class MovablePlayerNPC extends BasePlayerNPC {
         EquipmentSlot slot = Utils.getEquipmentSlotFor(itemSlot);
         getItemSlots().put(itemSlot, bukkitLivingEntity.getEquipment().getItem(slot));
       }
-      for (Player player : location.getNearbyPlayers(Constants.NPC_VISIBILITY_RANGE)) {
-        PacketManager.sendEquipmentPackets(player, this);
-      }
+      invalidateSpawnPackets();
+      markDirty(DIRTY_EQUIPMENT);
     }
   }
 
@@ -1,10 +1,31 @@
 package dev.crystall.playernpclib.api.skin;
 
+import com.comphenix.protocol.wrappers.WrappedSignedProperty;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
 /**
  * Created by CrystallDEV on 01/09/2020
  */
 public record PlayerSkin(String value, String signature) {
 
+  // Equal skins share one instance, so npcs with the same skin also share the textures and their property
+  private static final Interner<PlayerSkin> INTERNER = Interners.newWeakInterner();
+  private static final LoadingCache<PlayerSkin, WrappedSignedProperty> PROPERTIES = CacheBuilder.newBuilder()
+    .weakKeys()
+    .build(CacheLoader.from(skin -> new WrappedSignedProperty("textures", skin.value(), skin.signature())));
+
+  /**
+   * @param skin the skin
+   * @return the shared instance of all skins equal to the given one or null if the skin is null
+   */
+  public static PlayerSkin intern(PlayerSkin skin) {
+    return skin == null ? null : INTERNER.intern(skin);
+  }
+
   public String getValue() {
     return this.value;
   }
@@ -13,4 +34,11 @@ public record PlayerSkin(String value, String signature) {
     return this.signature;
   }
 
+  /**
+   * @return the textures property of this skin, shared by all game profiles using this skin instance
+   */
+  public WrappedSignedProperty toProperty() {
+    return PROPERTIES.getUnchecked(this);
+  }
+
 }
@@ -0,0 +1,227 @@
+package dev.crystall.playernpclib.api.skin;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.bukkit.Bukkit;
+
+/**
+ * Skins by their mineskin id, persisted in an append-only file so they survive restarts without fetching them again. Every fetched skin is
+ * appended as a record, later records replace earlier ones with the same id. Skins older than the ttl are dropped, once there are more skins
+ * than the size bound the oldest ones are dropped. The file is rewritten without the dropped records when it holds too many of them.
+ * <p>
+ * Lookups can happen from any thread, writes are synchronized.
+ * <p>
+ * Created by CrystallDEV on 18/10/2026
+ */
+public class SkinCache {
+
+  private static final int MAGIC = 0x504E534B;
+  private static final int FORMAT_VERSION = 1;
+
+  private final File file;
+  private final long ttlMillis;
+  private final int maxEntries;
+
+  private final Map<Integer, Entry> entries = new ConcurrentHashMap<>();
+  // Stream the new records are appended to, null if the cache is not persisted
+  private DataOutputStream output;
+  // The amount of records in the file, including replaced and expired ones
+  private int fileRecords = 0;
+
+  /**
+   * @param file the file to persist the skins in or null to only keep them in memory
+   * @param ttlMillis the time in milliseconds after which a skin is fetched again
+   * @param maxEntries the maximum amount of skins to keep
+   */
+  public SkinCache(File file, long ttlMillis, int maxEntries) {
+    if (maxEntries <= 0) {
+      throw new IllegalArgumentException("maxEntries has to be positive");
+    }
+    this.file = file;
+    this.ttlMillis = ttlMillis;
+    this.maxEntries = maxEntries;
+  }
+
+  /**
+   * Reads all skins that are not expired from the file and opens it for appending
+   */
+  public synchronized void load() {
+    if (file == null) {
+      return;
+    }
+    long now = System.currentTimeMillis();
+    // Only a file that was read up to a record boundary can be appended to
+    boolean complete = false;
+    if (file.isFile()) {
+      try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+        if (input.readInt() != MAGIC || input.readInt() != FORMAT_VERSION) {
+          throw new IOException("unknown format");
+        }
+        int first;
+        while ((first = input.read()) != -1) {
+          int id = first << 24 | input.readUnsignedByte() << 16 | input.readUnsignedByte() << 8 | input.readUnsignedByte();
+          long fetchedAt = input.readLong();
+          PlayerSkin skin = new PlayerSkin(input.readUTF(), input.readUTF());
+          fileRecords++;
+          if (now - fetchedAt < ttlMillis) {
+            entries.put(id, new Entry(PlayerSkin.intern(skin), fetchedAt));
+          } else {
+            entries.remove(id);
+          }
+        }
+        complete = true;
+      } catch (EOFException ignored) {
+        // A partly written last record, it is dropped by the rewrite below
+      } catch (IOException exception) {
+        Bukkit.getLogger().warning("Could not read the skin cache, starting with an empty one. Message: " + exception.getMessage());
+        entries.clear();
+      }
+    }
+    while (entries.size() > maxEntries) {
+      evictOldest();
+    }
+    if (!complete || fileRecords != entries.size()) {
+      rewrite();
+    } else {
+      openOutput();
+    }
+  }
+
+  /**
+   * @param id the mineskin id
+   * @return the cached skin or null if it is not cached or expired
+   */
+  public PlayerSkin get(int id) {
+    Entry entry = entries.get(id);
+    if (entry == null) {
+      return null;
+    }
+    if (System.currentTimeMillis() - entry.fetchedAt() >= ttlMillis) {
+      entries.remove(id, entry);
+      return null;
+    }
+    return entry.skin();
+  }
+
+  /**
+   * Caches the skin and appends it to the file
+   *
+   * @param id the mineskin id
+   * @param skin the fetched skin
+   */
+  public synchronized void put(int id, PlayerSkin skin) {
+    long now = System.currentTimeMillis();
+    entries.put(id, new Entry(skin, now));
+    while (entries.size() > maxEntries) {
+      evictOldest();
+    }
+    if (output == null) {
+      return;
+    }
+    if (fileRecords >= maxEntries * 2) {
+      rewrite();
+      return;
+    }
+    try {
+      writeRecord(output, id, skin, now);
+      output.flush();
+      fileRecords++;
+    } catch (IOException exception) {
+      Bukkit.getLogger().warning("Could not write the skin cache, skins are only cached in memory now. Message: " + exception.getMessage());
+      closeOutput();
+    }
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  /**
+   * Closes the file, skins are only cached in memory afterwards
+   */
+  public synchronized void close() {
+    closeOutput();
+  }
+
+  private void evictOldest() {
+    Integer oldestId = null;
+    long oldest = Long.MAX_VALUE;
+    for (Map.Entry<Integer, Entry> entry : entries.entrySet()) {
+      if (entry.getValue().fetchedAt() < oldest) {
+        oldest = entry.getValue().fetchedAt();
+        oldestId = entry.getKey();
+      }
+    }
+    if (oldestId != null) {
+      entries.remove(oldestId);
+    }
+  }
+
+  /**
+   * Replaces the file with one that only contains the current skins
+   */
+  private void rewrite() {
+    closeOutput();
+    File parent = file.getAbsoluteFile().getParentFile();
+    File tempFile = new File(parent, file.getName() + ".tmp");
+    try {
+      Files.createDirectories(parent.toPath());
+      try (DataOutputStream tempOutput = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+        tempOutput.writeInt(MAGIC);
+        tempOutput.writeInt(FORMAT_VERSION);
+        for (Map.Entry<Integer, Entry> entry : entries.entrySet()) {
+          writeRecord(tempOutput, entry.getKey(), entry.getValue().skin(), entry.getValue().fetchedAt());
+        }
+      }
+      Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      fileRecords = entries.size();
+      openOutput();
+    } catch (IOException exception) {
+      Bukkit.getLogger().warning("Could not write the skin cache, skins are only cached in memory now. Message: " + exception.getMessage());
+    }
+  }
+
+  private void openOutput() {
+    try {
+      output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)));
+    } catch (IOException exception) {
+      Bukkit.getLogger().warning("Could not open the skin cache, skins are only cached in memory now. Message: " + exception.getMessage());
+      output = null;
+    }
+  }
+
+  private void closeOutput() {
+    if (output == null) {
+      return;
+    }
+    try {
+      output.close();
+    } catch (IOException ignored) {
+      // Nothing left to do with a broken file
+    }
+    output = null;
+  }
+
+  private static void writeRecord(DataOutputStream output, int id, PlayerSkin skin, long fetchedAt) throws IOException {
+    output.writeInt(id);
+    output.writeLong(fetchedAt);
+    output.writeUTF(skin.getValue());
+    output.writeUTF(skin.getSignature());
+  }
+
+  private record Entry(PlayerSkin skin, long fetchedAt) {
+
+  }
+
+}
@@ -2,13 +2,13 @@ package dev.crystall.playernpclib.api.skin;
 
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
+import dev.crystall.playernpclib.Constants;
 import dev.crystall.playernpclib.PlayerNPCLib;
+import java.io.File;
 import java.io.IOException;
 import java.net.HttpURLConnection;
 import java.net.URL;
-import java.util.Map;
 import java.util.Scanner;
-import java.util.concurrent.ConcurrentHashMap;
 import org.bukkit.Bukkit;
 
 /**
@@ -17,11 +17,33 @@ import org.bukkit.Bukkit;
 public class SkinFetcher {
 
   private static final String MINESKIN_API = "https://api.mineskin.org/get/id/";
-  private static final Map<Integer, PlayerSkin> cachedSkins = new ConcurrentHashMap<>();
+  // Only kept in memory until the persistent cache is loaded
+  private static volatile SkinCache cachedSkins = new SkinCache(null, Constants.SKIN_CACHE_TTL_MILLIS, Constants.SKIN_CACHE_MAX_ENTRIES);
 
   private SkinFetcher() {
   }
 
+  /**
+   * Loads the skins fetched before the last restart from the data folder, skins fetched from now on are persisted there as well
+   *
+   * @param dataFolder the data folder of the plugin
+   */
+  public static void loadCache(File dataFolder) {
+    SkinCache skinCache = new SkinCache(new File(dataFolder, Constants.SKIN_CACHE_FILE_NAME), Constants.SKIN_CACHE_TTL_MILLIS,
+      Constants.SKIN_CACHE_MAX_ENTRIES);
+    skinCache.load();
+    cachedSkins.close();
+    cachedSkins = skinCache;
+    Bukkit.getLogger().info("Loaded " + skinCache.size() + " cached skins");
+  }
+
+  /**
+   * Closes the persistent skin cache
+   */
+  public static void closeCache() {
+    cachedSkins.close();
+  }
+
   // TODO maybe replace with the mineskin API java client -> https://github.com/InventivetalentDev/MineskinClient
   public static void asyncFetchSkin(int id, Callback<PlayerSkin> callback) {
     Bukkit.getScheduler().runTaskAsynchronously(PlayerNPCLib.getPlugin(), () -> {
@@ -37,8 +59,9 @@ public class SkinFetcher {
   public static PlayerSkin fetchSkin(int id) {
     try {
       // Check for cached value and return it
-      if (cachedSkins.containsKey(id)) {
-        return cachedSkins.get(id);
+      PlayerSkin cachedSkin = cachedSkins.get(id);
+      if (cachedSkin != null) {
+        return cachedSkin;
       }
 
       StringBuilder builder = new StringBuilder();
@@ -61,7 +84,7 @@ public class SkinFetcher {
       String value = textures.get("value").getAsString();
       String signature = textures.get("signature").getAsString();
 
-      PlayerSkin skin = new PlayerSkin(value, signature);
+      PlayerSkin skin = PlayerSkin.intern(new PlayerSkin(value, signature));
       cachedSkins.put(id, skin);
       return skin;
     } catch (IOException exception) {
@@ -0,0 +1,49 @@
+package dev.crystall.playernpclib.api.utility;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMaps;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+
+/**
+ * Primitive int keyed map that can be read from any thread without locking. Every write replaces the backing map with an updated copy, so this
+ * should only be used for data that is read far more often than it is changed (e.g. entity id lookups from packet listeners).
+ * <p>
+ * Created by CrystallDEV on 18/10/2026
+ */
+public class CopyOnWriteIntMap<V> {
+
+  private volatile Int2ObjectMap<V> snapshot = Int2ObjectMaps.emptyMap();
+
+  public V get(int key) {
+    return snapshot.get(key);
+  }
+
+  public boolean containsKey(int key) {
+    return snapshot.containsKey(key);
+  }
+
+  public int size() {
+    return snapshot.size();
+  }
+
+  public synchronized void put(int key, V value) {
+    Int2ObjectOpenHashMap<V> copy = new Int2ObjectOpenHashMap<>(snapshot);
+    copy.put(key, value);
+    snapshot = copy;
+  }
+
+  public synchronized V remove(int key) {
+    if (!snapshot.containsKey(key)) {
+      return null;
+    }
+    Int2ObjectOpenHashMap<V> copy = new Int2ObjectOpenHashMap<>(snapshot);
+    V previous = copy.remove(key);
+    snapshot = copy;
+    return previous;
+  }
+
+  public synchronized void clear() {
+    snapshot = Int2ObjectMaps.emptyMap();
+  }
+
+}
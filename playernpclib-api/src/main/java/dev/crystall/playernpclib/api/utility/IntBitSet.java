@@ -0,0 +1,88 @@
+package dev.crystall.playernpclib.api.utility;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Compact set of small non-negative ints, e.g. player slots. Writes have to happen on a single thread, reads from other threads never fail but
+ * might not see the latest writes yet.
+ * <p>
+ * Created by CrystallDEV on 18/10/2026
+ */
+public class IntBitSet {
+
+  private static final long[] EMPTY = new long[0];
+
+  private long[] words = EMPTY;
+  private int cardinality = 0;
+
+  public boolean contains(int value) {
+    long[] current = words;
+    int index = value >>> 6;
+    return value >= 0 && index < current.length && (current[index] & (1L << value)) != 0;
+  }
+
+  /**
+   * @param value the value to add
+   * @return true if the value was not contained before
+   */
+  public boolean add(int value) {
+    if (value < 0) {
+      throw new IllegalArgumentException("value cannot be negative");
+    }
+    int index = value >>> 6;
+    if (index >= words.length) {
+      words = Arrays.copyOf(words, Math.max(index + 1, words.length * 2));
+    }
+    long mask = 1L << value;
+    if ((words[index] & mask) != 0) {
+      return false;
+    }
+    words[index] |= mask;
+    cardinality++;
+    return true;
+  }
+
+  /**
+   * @param value the value to remove
+   * @return true if the value was contained before
+   */
+  public boolean remove(int value) {
+    if (!contains(value)) {
+      return false;
+    }
+    words[value >>> 6] &= ~(1L << value);
+    cardinality--;
+    return true;
+  }
+
+  public void clear() {
+    Arrays.fill(words, 0L);
+    cardinality = 0;
+  }
+
+  public boolean isEmpty() {
+    return cardinality == 0;
+  }
+
+  public int size() {
+    return cardinality;
+  }
+
+  /**
+   * Calls the consumer with every contained value in ascending order
+   *
+   * @param consumer the consumer
+   */
+  public void forEach(IntConsumer consumer) {
+    long[] current = words;
+    for (int index = 0; index < current.length; index++) {
+      long word = current[index];
+      while (word != 0) {
+        consumer.accept((index << 6) + Long.numberOfTrailingZeros(word));
+        word &= word - 1;
+      }
+    }
+  }
+
+}
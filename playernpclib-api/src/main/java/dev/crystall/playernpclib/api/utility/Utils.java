@@ -3,7 +3,6 @@ package dev.crystall.playernpclib.api.utility;
 import com.comphenix.protocol.wrappers.EnumWrappers.ItemSlot;
 import dev.crystall.playernpclib.PlayerNPCLib;
 import dev.crystall.playernpclib.api.base.BasePlayerNPC;
-import dev.crystall.playernpclib.api.base.MovablePlayerNPC;
 import dev.crystall.playernpclib.manager.EntityManager;
 import java.util.Arrays;
 import java.util.IllegalFormatException;
@@ -52,15 +51,7 @@ public class Utils {
   }
 
   public static BasePlayerNPC getNPCFromEntity(Entity entity) {
-    for (BasePlayerNPC npc : EntityManager.getPlayerNPCList()) {
-      if (npc instanceof MovablePlayerNPC movablePlayerNPC) {
-        if (!entity.equals(movablePlayerNPC.getBukkitLivingEntity())) {
-          continue;
-        }
-        return movablePlayerNPC;
-      }
-    }
-    return null;
+    return EntityManager.getNPCByBukkitEntityId(entity.getEntityId());
   }
 
   /**
@@ -76,4 +67,19 @@ public class Utils {
     directionLocation.setDirection(dirBetweenLocations);
     return directionLocation;
   }
+
+  /**
+   * Same as {@link #lookAt(Location, Location)} but with the target given as plain coordinates
+   *
+   * @param loc the original location that should be changed
+   * @param x the x coordinate to face
+   * @param y the y coordinate to face
+   * @param z the z coordinate to face
+   * @return a copy of the original location facing the given coordinates
+   */
+  public static Location lookAt(Location loc, double x, double y, double z) {
+    Location directionLocation = loc.clone();
+    directionLocation.setDirection(new Vector(x - loc.getX(), y - loc.getY(), z - loc.getZ()).normalize());
+    return directionLocation;
+  }
 }
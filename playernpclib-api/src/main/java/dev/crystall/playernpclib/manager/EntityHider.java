@@ -6,7 +6,6 @@ import static com.comphenix.protocol.PacketType.Play.Server.BLOCK_BREAK_ANIMATIO
 import static com.comphenix.protocol.PacketType.Play.Server.COLLECT;
 import static com.comphenix.protocol.PacketType.Play.Server.COMBAT_EVENT;
 import static com.comphenix.protocol.PacketType.Play.Server.CUSTOM_SOUND_EFFECT;
-import static com.comphenix.protocol.PacketType.Play.Server.ENTITY_DESTROY;
 import static com.comphenix.protocol.PacketType.Play.Server.ENTITY_EFFECT;
 import static com.comphenix.protocol.PacketType.Play.Server.ENTITY_EQUIPMENT;
 import static com.comphenix.protocol.PacketType.Play.Server.ENTITY_HEAD_ROTATION;
@@ -30,15 +29,16 @@ import com.comphenix.protocol.PacketType;
 import com.comphenix.protocol.ProtocolLibrary;
 import com.comphenix.protocol.ProtocolManager;
 import com.comphenix.protocol.events.PacketAdapter;
-import com.comphenix.protocol.events.PacketContainer;
 import com.comphenix.protocol.events.PacketEvent;
 import com.google.common.base.Preconditions;
-import com.google.common.collect.HashBasedTable;
-import com.google.common.collect.Table;
 import dev.crystall.playernpclib.PlayerNPCLib;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntIterator;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
 import java.lang.reflect.InvocationTargetException;
 import java.util.Collections;
-import java.util.Map;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
@@ -56,8 +56,10 @@ import org.bukkit.plugin.Plugin;
  */
 public class EntityHider implements Listener {
 
-  // observer / entityToObserve / visible
-  protected Table<Integer, Integer, Boolean> observerEntityMap = HashBasedTable.create();
+  // observer / entities in the list of the policy
+  protected final Int2ObjectMap<IntSet> observerEntityMap = new Int2ObjectOpenHashMap<>();
+  // entity / observers that have the entity in their list, so removing an entity only touches its own observers
+  protected final Int2ObjectMap<IntSet> entityObserverMap = new Int2ObjectOpenHashMap<>();
 
   // TODO register listener for packets based on MC version
   // Packets that update remote player entities
@@ -146,13 +148,34 @@ public class EntityHider implements Listener {
    */
   // Helper method
   protected boolean setMembership(Player observer, int entityID, boolean member) {
+    int observerID = observer.getEntityId();
     if (member) {
-      return observerEntityMap.put(observer.getEntityId(), entityID, true) != null;
+      return !addEntry(observerEntityMap, observerID, entityID) | !addEntry(entityObserverMap, entityID, observerID);
     } else {
-      return observerEntityMap.remove(observer.getEntityId(), entityID) != null;
+      return removeEntry(observerEntityMap, observerID, entityID) | removeEntry(entityObserverMap, entityID, observerID);
     }
   }
 
+  private static boolean addEntry(Int2ObjectMap<IntSet> map, int key, int value) {
+    IntSet values = map.get(key);
+    if (values == null) {
+      values = new IntOpenHashSet();
+      map.put(key, values);
+    }
+    return values.add(value);
+  }
+
+  private static boolean removeEntry(Int2ObjectMap<IntSet> map, int key, int value) {
+    IntSet values = map.get(key);
+    if (values == null || !values.remove(value)) {
+      return false;
+    }
+    if (values.isEmpty()) {
+      map.remove(key);
+    }
+    return true;
+  }
+
   /**
    * Determine if the given entity and observer is present in the table.
    *
@@ -161,7 +184,8 @@ public class EntityHider implements Listener {
    * @return TRUE if they are present, FALSE otherwise.
    */
   protected boolean getMembership(Player observer, int entityID) {
-    return observerEntityMap.contains(observer.getEntityId(), entityID);
+    IntSet entities = observerEntityMap.get(observer.getEntityId());
+    return entities != null && entities.contains(entityID);
   }
 
   /**
@@ -185,8 +209,11 @@ public class EntityHider implements Listener {
   protected void removeEntity(Entity entity, boolean destroyed) {
     int entityID = entity.getEntityId();
 
-    for (Map<Integer, Boolean> maps : observerEntityMap.rowMap().values()) {
-      maps.remove(entityID);
+    IntSet observers = entityObserverMap.remove(entityID);
+    if (observers != null) {
+      for (IntIterator iterator = observers.iterator(); iterator.hasNext(); ) {
+        removeEntry(observerEntityMap, iterator.nextInt(), entityID);
+      }
     }
   }
 
@@ -197,7 +224,13 @@ public class EntityHider implements Listener {
    */
   protected void removePlayer(Player player) {
     // Cleanup
-    observerEntityMap.rowMap().remove(player.getEntityId());
+    int observerID = player.getEntityId();
+    IntSet entities = observerEntityMap.remove(observerID);
+    if (entities != null) {
+      for (IntIterator iterator = entities.iterator(); iterator.hasNext(); ) {
+        removeEntry(entityObserverMap, iterator.nextInt(), observerID);
+      }
+    }
   }
 
   /**
@@ -242,9 +275,11 @@ public class EntityHider implements Listener {
         int index = event.getPacketType() == COMBAT_EVENT ? 1 : 0;
 
         Integer entityID = event.getPacket().getIntegers().readSafely(index);
-        if (entityID != null && !PlayerNPCLib.getEntityManager().canSee(event.getPlayer(), entityID) && PlayerNPCLib.isNPC(entityID)
-          //          && !isVisible(event.getPlayer(), entityID)
-        ) {
+        // Almost all of these packets are for real entities, reject them before touching the npc registry
+        if (entityID == null || !EntityManager.isNPCEntityId(entityID)) {
+          return;
+        }
+        if (!PlayerNPCLib.getEntityManager().canSee(event.getPlayer(), entityID)) {
           event.setCancelled(true);
         }
       }
@@ -309,11 +344,8 @@ public class EntityHider implements Listener {
     boolean visibleBefore = setVisibility(observer, entityId, false);
 
     if (visibleBefore) {
-      PacketContainer destroyEntity = new PacketContainer(ENTITY_DESTROY);
-      destroyEntity.getIntegerArrays().write(0, new int[]{entityId});
-
       // Make the entity disappear
-      manager.sendServerPacket(observer, destroyEntity);
+      PacketManager.sendDestroyPacket(observer, entityId);
     }
     return visibleBefore;
   }
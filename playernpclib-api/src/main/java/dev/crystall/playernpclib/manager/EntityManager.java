@@ -1,7 +1,5 @@
 package dev.crystall.playernpclib.manager;
 
-import static dev.crystall.playernpclib.wrapper.WrapperFactory.BASE_WRAPPER_PLAY_CLIENT_USE_ENTITY;
-
 import com.comphenix.protocol.PacketType.Play.Client;
 import com.comphenix.protocol.ProtocolLibrary;
 import com.comphenix.protocol.events.PacketAdapter;
@@ -17,18 +15,21 @@ import dev.crystall.playernpclib.api.event.NPCHideEvent;
 import dev.crystall.playernpclib.api.event.NPCInteractEvent;
 import dev.crystall.playernpclib.api.event.NPCShowEvent;
 import dev.crystall.playernpclib.api.event.NPCSpawnEvent;
+import dev.crystall.playernpclib.api.utility.CopyOnWriteIntMap;
+import dev.crystall.playernpclib.api.utility.IntBitSet;
 import dev.crystall.playernpclib.api.utility.Utils;
 import dev.crystall.playernpclib.wrapper.BaseWrapperPlayClientUseEntity;
-import dev.crystall.playernpclib.wrapper.WrapperGenerator;
-import java.util.HashSet;
+import dev.crystall.playernpclib.wrapper.WrapperFactory;
+import it.unimi.dsi.fastutil.objects.ReferenceLinkedOpenHashSet;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
-import java.util.UUID;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicInteger;
 import lombok.Getter;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.entity.Player;
 import org.bukkit.util.Vector;
 
@@ -42,8 +43,62 @@ public class EntityManager {
   @Getter
   private static final List<BasePlayerNPC> playerNPCList = new CopyOnWriteArrayList<>();
 
-  // Prevent players from clicking at very high speeds.
-  private final Set<UUID> interactableDelay = new HashSet<>();
+  // Lookups by entity id, these are read from the packet threads and kept in sync with the playerNPCList
+  private static final CopyOnWriteIntMap<BasePlayerNPC> npcsByEntityId = new CopyOnWriteIntMap<>();
+  private static final CopyOnWriteIntMap<MovablePlayerNPC> npcsByBukkitEntityId = new CopyOnWriteIntMap<>();
+  // Registered npc ids stored as their offset from Integer.MAX_VALUE, used to reject packets of other entities without a map lookup
+  private static final IntBitSet npcIdOffsets = new IntBitSet();
+
+  /**
+   * Prevents players from clicking at very high speeds
+   */
+  @Getter
+  private final InteractCooldowns interactCooldowns = new InteractCooldowns();
+
+  /**
+   * Buckets the registered npcs by world and cell for range lookups
+   */
+  @Getter
+  private final SpatialIndex spatialIndex = new SpatialIndex(Constants.NPC_SPATIAL_CELL_SIZE);
+
+  /**
+   * Shows and hides npcs when players or npcs cross cell borders
+   */
+  @Getter
+  private final InterestManager interestManager = new InterestManager(this, spatialIndex);
+
+  /**
+   * Dense player slots and the npcs shown to each player
+   */
+  @Getter
+  private final PlayerSlots playerSlots = new PlayerSlots();
+
+  /**
+   * Spreads the per tick npc updates over multiple ticks
+   */
+  @Getter
+  private final TickScheduler tickScheduler = new TickScheduler(this, spatialIndex);
+
+  /**
+   * Encodes npc movement into relative move packets
+   */
+  @Getter
+  private final MovementEncoder movementEncoder = new MovementEncoder();
+
+  /**
+   * Batches the npc team memberships sent to the players
+   */
+  @Getter
+  private final TeamMembers teamMembers = new TeamMembers();
+
+  /**
+   * Adds and removes the player info entries of the shown npcs
+   */
+  @Getter
+  private final PlayerInfoEntries playerInfoEntries = new PlayerInfoEntries();
+
+  // Npcs with changes that are sent at the end of the tick
+  private final Set<BasePlayerNPC> dirtyNPCs = new ReferenceLinkedOpenHashSet<>();
 
   public EntityManager() {
     ProtocolLibrary.getProtocolManager().addPacketListener(new PacketAdapter(PlayerNPCLib.getPlugin(), Client.USE_ENTITY) {
@@ -53,17 +108,7 @@ public class EntityManager {
       }
     });
 
-    Bukkit.getScheduler().runTaskTimer(PlayerNPCLib.getPlugin(), () -> {
-      for (BasePlayerNPC npc : playerNPCList) {
-        if (!(npc instanceof MovablePlayerNPC movablePlayerNPC)) {
-          if (npc.isLookAtClosestPlayer()) {
-            handleLookClosest(npc);
-          }
-          continue;
-        }
-        handleNPCMoving(movablePlayerNPC);
-      }
-    }, 0L, 1L);
+    Bukkit.getScheduler().runTaskTimer(PlayerNPCLib.getPlugin(), tickScheduler, 0L, 1L);
   }
 
   /**
@@ -74,6 +119,13 @@ public class EntityManager {
       npc.setVisibilityRestricted(!showByDefault);
       npc.spawn();
       playerNPCList.add(npc);
+      npcsByEntityId.put(npc.getEntityId(), npc);
+      npcIdOffsets.add(Integer.MAX_VALUE - npc.getEntityId());
+      spatialIndex.add(npc);
+      tickScheduler.add(npc);
+      if (npc instanceof MovablePlayerNPC movablePlayerNPC && movablePlayerNPC.getBukkitLivingEntity() != null) {
+        npcsByBukkitEntityId.put(movablePlayerNPC.getBukkitLivingEntity().getEntityId(), movablePlayerNPC);
+      }
     }
   }
 
@@ -82,65 +134,139 @@ public class EntityManager {
    * @return
    */
   public boolean removeEntity(BasePlayerNPC npc) {
-    if (!playerNPCList.contains(npc)) {
+    if (npcsByEntityId.get(npc.getEntityId()) != npc) {
       return false;
     }
 
     npc.remove();
     playerNPCList.remove(npc);
+    npcsByEntityId.remove(npc.getEntityId());
+    npcIdOffsets.remove(Integer.MAX_VALUE - npc.getEntityId());
+    spatialIndex.remove(npc);
+    tickScheduler.remove(npc);
+    movementEncoder.remove(npc);
+    teamMembers.remove(npc.getInternalName());
+    dirtyNPCs.remove(npc);
+    npc.clearChanges();
+    interactCooldowns.removeNPC(npc.getEntityId());
+    if (npc instanceof MovablePlayerNPC movablePlayerNPC && movablePlayerNPC.getBukkitLivingEntity() != null) {
+      npcsByBukkitEntityId.remove(movablePlayerNPC.getBukkitLivingEntity().getEntityId());
+    }
     return true;
   }
 
   /**
-   * @param player
+   * Cheap check if the id belongs to a registered npc, meant for hot paths like packet listeners. Npc ids are handed out downwards from
+   * {@link Integer#MAX_VALUE}, so every id at or below the counter belongs to a real entity.
+   *
+   * @param entityId the entity id to check
+   * @return true if an npc is registered with this id
+   */
+  public static boolean isNPCEntityId(int entityId) {
+    return entityId > ENTITY_ID_COUNTER.get() && npcIdOffsets.contains(Integer.MAX_VALUE - entityId);
+  }
+
+  /**
+   * Looks up a registered npc by the entity id it is shown with at the client
+   *
+   * @param entityId the (fake) entity id of the npc
+   * @return the npc or null if there is no npc registered with this id
+   */
+  public static BasePlayerNPC getNPC(int entityId) {
+    return npcsByEntityId.get(entityId);
+  }
+
+  /**
+   * Looks up a registered npc by the entity id of the bukkit entity that is moving it
+   *
+   * @param entityId the entity id of the hidden bukkit entity
+   * @return the npc or null if the entity does not belong to a registered npc
+   */
+  public static MovablePlayerNPC getNPCByBukkitEntityId(int entityId) {
+    return npcsByBukkitEntityId.get(entityId);
+  }
+
+  /**
+   * Updates the npcs shown to the player after it moved. Npcs only get shown or hidden when the player enters a new cell.
+   *
+   * @param player the player that moved
    */
   public void handleRealPlayerMove(Player player) {
-    for (BasePlayerNPC npc : getPlayerNPCList()) {
-      var seeing = !npc.isVisibilityRestricted() || canSee(player, npc);
-      var isShownTo = npc.getShownTo().contains(player.getUniqueId());
-      if (seeing && inRangeOf(player, npc) && inViewOf(player, npc)) {
-        if (isShownTo) {
-          return;
-        }
-        // The player is in range and can see the NPC, auto-show it.
-        showNPC(player, npc);
-      } else if (!seeing && !inRangeOf(player, npc)) {
-        // The player is not in range of the NPC anymore, auto-hide it.
-        hideNPC(player, npc);
+    interestManager.updatePlayer(player);
+  }
+
+  /**
+   * Runs the per tick update of a single npc, called by the {@link TickScheduler}
+   *
+   * @param npc the npc to update
+   */
+  void tickNPC(BasePlayerNPC npc) {
+    if (npc instanceof MovablePlayerNPC movablePlayerNPC) {
+      if (npc.hasViewers()) {
+        handleNPCMoving(movablePlayerNPC);
+      } else {
+        syncNPCLocation(movablePlayerNPC);
       }
+    } else if (npc.isLookAtClosestPlayer() && npc.hasViewers()) {
+      handleLookClosest(npc);
     }
   }
 
+  /**
+   * Copies the location of the bukkit entity to the npc without sending any packets. This is enough for npcs without viewers, since the
+   * location is only needed to show them once a player comes close.
+   *
+   * @param npc the npc to sync
+   */
+  public void syncNPCLocation(MovablePlayerNPC npc) {
+    npc.setLocation(npc.getBukkitLivingEntity().getLocation(), false);
+    npc.setEyeLocation(npc.getBukkitLivingEntity().getEyeLocation(), false);
+  }
+
   public void handleNPCMoving(MovablePlayerNPC npc) {
     npc.setLocation(npc.getBukkitLivingEntity().getLocation(), false);
     npc.setEyeLocation(npc.getBukkitLivingEntity().getEyeLocation(), false);
     npc.updateHologram();
-    for (Player player : npc.getLocation().getNearbyPlayers(Constants.NPC_VISIBILITY_RANGE)) {
-      PacketManager.sendMovePacket(player, npc);
+    npc.sendMovement();
+  }
+
+  /**
+   * Queues the npc for the flush at the end of the current tick
+   *
+   * @param npc the npc that changed
+   */
+  public void markDirty(BasePlayerNPC npc) {
+    dirtyNPCs.add(npc);
+  }
+
+  /**
+   * Sends the changes of all npcs that changed during this tick
+   */
+  public void flushDirtyNPCs() {
+    if (dirtyNPCs.isEmpty()) {
+      return;
+    }
+    // Copy, flushing might call events that change npcs again
+    List<BasePlayerNPC> npcs = new ArrayList<>(dirtyNPCs);
+    dirtyNPCs.clear();
+    for (BasePlayerNPC npc : npcs) {
+      npc.flushChanges();
     }
   }
 
   /**
-   * Async gets the closest player and makes the given npc look at it
+   * Gets the closest player from the player snapshot of the current tick and makes the given npc look at it
    *
    * @param npc that will look at the closest player
    */
   private void handleLookClosest(BasePlayerNPC npc) {
-    Player closestPlayer = null;
-    double shortestDistance = Double.MAX_VALUE;
-    for (Player player : npc.getLocation().getNearbyPlayers(Constants.NPC_LOOK_AT_RADIUS)) {
-      if (!canSee(player, npc)) {
-        continue;
-      }
-      double distance = player.getLocation().distance(npc.getLocation());
-      if (distance < shortestDistance) {
-        closestPlayer = player;
-        shortestDistance = distance;
-      }
-    }
+    PlayerSnapshot snapshot = tickScheduler.getPlayerSnapshot();
+    Location location = npc.getLocation();
+    int closest = snapshot.findClosest(snapshot.getWorldIndex(location.getWorld()), location.getX(), location.getY(), location.getZ(),
+      Constants.NPC_LOOK_AT_RADIUS, index -> canSee(snapshot.getPlayer(index), npc));
 
-    if (closestPlayer != null) {
-      Location lookLocation = Utils.lookAt(npc.getLocation(), closestPlayer.getLocation());
+    if (closest != -1) {
+      Location lookLocation = Utils.lookAt(location, snapshot.getX(closest), snapshot.getY(closest), snapshot.getZ(closest));
       npc.setLocation(lookLocation, false);
       npc.setEyeLocation(lookLocation, true);
     }
@@ -155,18 +281,10 @@ public class EntityManager {
     if (!packet.getType().equals(Client.USE_ENTITY)) {
       return;
     }
-    BaseWrapperPlayClientUseEntity packetWrapper = new WrapperGenerator<BaseWrapperPlayClientUseEntity>().map(
-      BASE_WRAPPER_PLAY_CLIENT_USE_ENTITY, packet);
-
-    BasePlayerNPC npc = null;
-    for (BasePlayerNPC playerNPC : EntityManager.getPlayerNPCList()) {
-      if (playerNPC.isSpawned() && playerNPC.getEntityId() == packetWrapper.getTargetID()) {
-        npc = playerNPC;
-        break;
-      }
-    }
+    BaseWrapperPlayClientUseEntity packetWrapper = WrapperFactory.getProvider().wrapUseEntity(packet);
 
-    if (npc == null) {
+    BasePlayerNPC npc = getNPC(packetWrapper.getTargetID());
+    if (npc == null || !npc.isSpawned()) {
       // Default player, not doing magic with the packet.
       return;
     }
@@ -174,21 +292,15 @@ public class EntityManager {
     // Cancel the event since we handle stuff ourselves
     event.setCancelled(true);
 
-    // Active delay
-    if (interactableDelay.contains(player.getUniqueId())) {
-      return;
-    }
-
     ClickType clickType = packetWrapper.getType() == EntityUseAction.ATTACK ? ClickType.LEFT_CLICK : ClickType.RIGHT_CLICK;
 
-    // Add the player to the delay set
-    interactableDelay.add(player.getUniqueId());
+    // Active cooldown, drop the click before scheduling anything
+    if (!interactCooldowns.tryAcquire(player.getUniqueId(), npc.getEntityId(), clickType, npc.getInteractCooldown(clickType))) {
+      return;
+    }
 
     NPCInteractEvent interactEvent = new NPCInteractEvent(player, npc, clickType);
-    Bukkit.getScheduler().runTask(PlayerNPCLib.getPlugin(), () -> {
-      interactEvent.callEvent();
-      interactableDelay.remove(player.getUniqueId());
-    });
+    Bukkit.getScheduler().runTask(PlayerNPCLib.getPlugin(), () -> interactEvent.callEvent());
 
     // Since this is a packet sent by the client, we need to make some checks
     if (!player.getWorld().equals(npc.getLocation().getWorld()) || player.getLocation().distanceSquared(npc.getLocation()) > 64 || player.isDead()) {
@@ -218,39 +330,129 @@ public class EntityManager {
     npc.hide(player);
   }
 
+  /**
+   * Hides all npcs that are currently shown to the player
+   *
+   * @param player the player
+   */
+  public void hideAllNPCs(Player player) {
+    for (BasePlayerNPC npc : playerSlots.getShownNPCs(player)) {
+      hideNPC(player, npc);
+    }
+  }
+
+  /**
+   * Forgets all npcs shown to the player without sending any packets, e.g. because the client already removed them
+   *
+   * @param player the player
+   */
+  public void clearShownNPCs(Player player) {
+    for (BasePlayerNPC npc : playerSlots.getShownNPCs(player)) {
+      npc.removeViewer(player.getUniqueId());
+      PlayerNPCLib.getEntityHider().setVisibility(player, npc.getEntityId(), false);
+    }
+  }
+
   public boolean canSee(Player player, BasePlayerNPC npc) {
-    return npc.getShownTo().contains(player.getUniqueId());
+    return npc.isShownTo(player);
   }
 
   public boolean canSee(Player player, int entityId) {
-    BasePlayerNPC npc = playerNPCList.stream().filter(basePlayerNPC -> basePlayerNPC.getEntityId() == entityId).findFirst().orElse(null);
+    BasePlayerNPC npc = getNPC(entityId);
     if (npc == null) {
       return false;
     }
 
     if (npc.isVisibilityRestricted()) {
-      return npc.getShownTo().contains(player.getUniqueId());
+      return npc.isShownTo(player);
     }
 
     return true;
   }
 
+  /**
+   * Checks if the player is close enough to the npc for it to be shown
+   *
+   * @param player the player
+   * @param npc the npc
+   * @return true if the player is within the view distance of the npc
+   */
   public boolean inRangeOf(Player player, BasePlayerNPC npc) {
     if (player == null) {
       return false;
     }
-    if (!player.getWorld().equals(npc.getLocation().getWorld())) {
+    return inRangeOf(player, npc, npc.getViewDistance());
+  }
+
+  /**
+   * Checks if the player is far enough away from the npc for it to be hidden. This uses the hide distance of the npc, which is larger than its
+   * view distance, so that walking along the border does not spawn and destroy the npc over and over again.
+   *
+   * @param player the player
+   * @param npc the npc
+   * @return true if the player is outside the hide distance of the npc
+   */
+  public boolean outOfRangeOf(Player player, BasePlayerNPC npc) {
+    if (player == null) {
+      return true;
+    }
+    return !inRangeOf(player, npc, npc.getHideDistance());
+  }
+
+  /**
+   * Reads the position of the player from the snapshot of this tick instead of cloning its location
+   */
+  private boolean inRangeOf(Player player, BasePlayerNPC npc, double distance) {
+    PlayerSnapshot snapshot = tickScheduler.getPlayerSnapshot();
+    int index = snapshot.indexOf(player);
+    if (index == -1) {
+      // Joined after the snapshot of this tick was taken
+      return inRangeOf(player.getLocation(), npc, distance);
+    }
+    return inRangeOf(snapshot.getWorld(index), snapshot.getX(index), snapshot.getY(index), snapshot.getZ(index), npc, distance);
+  }
+
+  /**
+   * @param location the location to check from
+   * @param npc the npc
+   * @param distance the maximum distance in blocks
+   * @return true if the location is in the same world and within the distance of the npc
+   */
+  public boolean inRangeOf(Location location, BasePlayerNPC npc, double distance) {
+    return inRangeOf(location.getWorld(), location.getX(), location.getY(), location.getZ(), npc, distance);
+  }
+
+  /**
+   * @param world the world of the position to check from
+   * @param x the x coordinate to check from
+   * @param y the y coordinate to check from
+   * @param z the z coordinate to check from
+   * @param npc the npc
+   * @param distance the maximum distance in blocks
+   * @return true if the position is in the same world and within the distance of the npc
+   */
+  public boolean inRangeOf(World world, double x, double y, double z, BasePlayerNPC npc, double distance) {
+    Location npcLocation = npc.getLocation();
+    if (world == null || world != npcLocation.getWorld()) {
       // No need to continue our checks, they are in different worlds.
       return false;
     }
 
     // If Bukkit doesn't track the NPC entity anymore, bypass the hiding distance variable.
     // This will cause issues otherwise (e.g. custom skin disappearing).
-    double hideDistance = 50;
-    double distanceSquared = player.getLocation().distanceSquared(npc.getLocation());
-    double bukkitRange = Bukkit.getViewDistance() << 4;
+    double range = getEffectiveRange(distance);
+    double dx = npcLocation.getX() - x;
+    double dy = npcLocation.getY() - y;
+    double dz = npcLocation.getZ() - z;
+    return dx * dx + dy * dy + dz * dz <= range * range;
+  }
 
-    return distanceSquared <= Math.pow(hideDistance, 2) && distanceSquared <= Math.pow(bukkitRange, 2);
+  /**
+   * @param distance a view or hide distance
+   * @return the distance limited to the range in which bukkit still tracks entities
+   */
+  public static double getEffectiveRange(double distance) {
+    return Math.min(distance, Bukkit.getViewDistance() << 4);
   }
 
   /**
@@ -1,8 +1,8 @@
 package dev.crystall.playernpclib.manager;
 
 import com.destroystokyo.paper.event.entity.EntityRemoveFromWorldEvent;
+import com.destroystokyo.paper.event.server.ServerTickEndEvent;
 import dev.crystall.playernpclib.PlayerNPCLib;
-import dev.crystall.playernpclib.api.base.BasePlayerNPC;
 import dev.crystall.playernpclib.api.base.MovablePlayerNPC;
 import dev.crystall.playernpclib.api.event.NPCAttackEvent;
 import dev.crystall.playernpclib.api.utility.Utils;
@@ -16,9 +16,12 @@ import org.bukkit.event.Listener;
 import org.bukkit.event.entity.EntityDamageByEntityEvent;
 import org.bukkit.event.entity.EntityDeathEvent;
 import org.bukkit.event.entity.EntityTargetLivingEntityEvent;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerMoveEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerRespawnEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
 import org.bukkit.event.world.ChunkLoadEvent;
 import org.bukkit.event.world.ChunkUnloadEvent;
 
@@ -31,22 +34,43 @@ public class EventManager implements Listener {
     Bukkit.getPluginManager().registerEvents(this, PlayerNPCLib.getPlugin());
   }
 
+  @EventHandler
+  public void onTickEnd(ServerTickEndEvent event) {
+    EntityManager entityManager = PlayerNPCLib.getEntityManager();
+    entityManager.flushDirtyNPCs();
+    entityManager.getTeamMembers().flush();
+    entityManager.getPlayerInfoEntries().flush();
+    PacketManager.flushQueuedPackets();
+  }
+
   @EventHandler
   public void onPlayerJoin(PlayerJoinEvent event) {
     PacketManager.sendScoreBoardTeamCreatePacket(event.getPlayer());
-    for (BasePlayerNPC npc : EntityManager.getPlayerNPCList()) {
-      if (PlayerNPCLib.getEntityManager().canSee(event.getPlayer(), npc)) {
-        npc.init(event.getPlayer());
-      }
-    }
+    PlayerNPCLib.getEntityManager().getTeamMembers().reset(event.getPlayer().getUniqueId());
+    PlayerNPCLib.getEntityManager().getInterestManager().updatePlayer(event.getPlayer());
   }
 
   @EventHandler
   public void onPlayerQuit(PlayerQuitEvent event) {
     var player = event.getPlayer();
-    for (BasePlayerNPC npc : EntityManager.getPlayerNPCList()) {
-      npc.getShownTo().remove(player.getUniqueId());
-    }
+    EntityManager entityManager = PlayerNPCLib.getEntityManager();
+    entityManager.getInterestManager().removePlayer(player);
+    entityManager.clearShownNPCs(player);
+    entityManager.getPlayerSlots().release(player);
+    entityManager.getInteractCooldowns().remove(player.getUniqueId());
+    entityManager.getTeamMembers().reset(player.getUniqueId());
+    entityManager.getPlayerInfoEntries().remove(player.getUniqueId());
+    PacketManager.clearQueuedPackets(player);
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR)
+  public void onPlayerChangedWorld(PlayerChangedWorldEvent event) {
+    // The client drops all entities when changing worlds, so the npcs have to be shown again
+    var player = event.getPlayer();
+    EntityManager entityManager = PlayerNPCLib.getEntityManager();
+    entityManager.clearShownNPCs(player);
+    entityManager.getInterestManager().removePlayer(player);
+    entityManager.getInterestManager().updatePlayer(player);
   }
 
   @EventHandler
@@ -55,48 +79,46 @@ public class EventManager implements Listener {
     Location to = event.getTo();
     // Only check movement when the player moves from one block to another.
     if (from.getBlockX() != to.getBlockX() || from.getBlockY() != to.getBlockY() || from.getBlockZ() != to.getBlockZ()) {
-      PlayerNPCLib.getEntityManager().handleRealPlayerMove(event.getPlayer());
+      PlayerNPCLib.getEntityManager().getInterestManager().updatePlayer(event.getPlayer(), to);
     }
   }
 
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void onPlayerTeleport(PlayerTeleportEvent event) {
+    PlayerNPCLib.getEntityManager().getInterestManager().updatePlayer(event.getPlayer(), event.getTo());
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR)
+  public void onPlayerRespawn(PlayerRespawnEvent event) {
+    PlayerNPCLib.getEntityManager().getInterestManager().updatePlayer(event.getPlayer(), event.getRespawnLocation());
+  }
+
   @EventHandler(priority = EventPriority.LOWEST)
   public void onEntityAttack(EntityDamageByEntityEvent event) {
     if (!(event.getDamager() instanceof LivingEntity) || !(event.getEntity() instanceof LivingEntity)) {
       return; // We only handle damage between two living entities
     }
 
-    for (BasePlayerNPC npc : EntityManager.getPlayerNPCList()) {
-      if (npc instanceof MovablePlayerNPC movablePlayerNPC) {
-        if (!event.getDamager().equals(movablePlayerNPC.getBukkitLivingEntity())) {
-          continue;
-        }
-
-        // The monster is supposed to attack
-        if (movablePlayerNPC.isAggressive()) {
-          new NPCAttackEvent(npc, (LivingEntity) event.getEntity()).callEvent();
-          npc.playAnimation(0);
-        }
-
-        event.setCancelled(true);
-        return;
-      }
+    MovablePlayerNPC movablePlayerNPC = EntityManager.getNPCByBukkitEntityId(event.getDamager().getEntityId());
+    if (movablePlayerNPC == null) {
+      return;
     }
+
+    // The monster is supposed to attack
+    if (movablePlayerNPC.isAggressive()) {
+      new NPCAttackEvent(movablePlayerNPC, (LivingEntity) event.getEntity()).callEvent();
+      movablePlayerNPC.playAnimation(0);
+    }
+
+    event.setCancelled(true);
   }
 
   @EventHandler(priority = EventPriority.LOWEST)
   public void onTargetAggro(EntityTargetLivingEntityEvent event) {
-    for (BasePlayerNPC npc : EntityManager.getPlayerNPCList()) {
-      if (npc instanceof MovablePlayerNPC movablePlayerNPC) {
-        if (!event.getEntity().equals(movablePlayerNPC.getBukkitLivingEntity())) {
-          continue;
-        }
-
-        // Check if the monster is not supposed to attack / target
-        if (!movablePlayerNPC.isAggressive()) {
-          event.setCancelled(true);
-          return;
-        }
-      }
+    MovablePlayerNPC movablePlayerNPC = EntityManager.getNPCByBukkitEntityId(event.getEntity().getEntityId());
+    // Check if the monster is not supposed to attack / target
+    if (movablePlayerNPC != null && !movablePlayerNPC.isAggressive()) {
+      event.setCancelled(true);
     }
   }
 
@@ -0,0 +1,82 @@
+package dev.crystall.playernpclib.manager;
+
+import dev.crystall.playernpclib.api.event.ClickType;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMaps;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Timestamps of the last accepted npc interaction per player, npc and click type. Interactions are read from the netty threads, so the
+ * timestamps are updated with compare and set instead of locks. The npcs of a player are only looked up by the connection thread of that
+ * player, the lock on them is uncontended apart from removing an npc.
+ * <p>
+ * Created by CrystallDEV on 18/10/2026
+ */
+public class InteractCooldowns {
+
+  private static final ClickType[] CLICK_TYPES = ClickType.values();
+  private static final long NEVER = Long.MIN_VALUE;
+
+  // player / npc entity id / timestamps by click type ordinal
+  private final Map<UUID, Int2ObjectMap<AtomicLongArray>> lastInteractions = new ConcurrentHashMap<>();
+
+  /**
+   * Accepts the interaction if the last accepted one of the player with the same npc and click type is longer ago than the cooldown
+   *
+   * @param uuid the uuid of the player
+   * @param entityId the entity id of the npc
+   * @param clickType the click type of the interaction
+   * @param cooldownMillis the cooldown of the npc in milliseconds
+   * @return true if the interaction is accepted, false if the player is still on cooldown
+   */
+  public boolean tryAcquire(UUID uuid, int entityId, ClickType clickType, long cooldownMillis) {
+    Int2ObjectMap<AtomicLongArray> npcs = lastInteractions.computeIfAbsent(uuid, id -> Int2ObjectMaps.synchronize(new Int2ObjectOpenHashMap<>()));
+    AtomicLongArray timestamps = npcs.computeIfAbsent(entityId, id -> createTimestamps());
+    long now = System.nanoTime();
+    long cooldownNanos = TimeUnit.MILLISECONDS.toNanos(cooldownMillis);
+    int index = clickType.ordinal();
+    while (true) {
+      long last = timestamps.get(index);
+      if (last != NEVER && now - last < cooldownNanos) {
+        return false;
+      }
+      if (timestamps.compareAndSet(index, last, now)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Forgets the cooldowns of the player, e.g. because the player left the server
+   *
+   * @param uuid the uuid of the player
+   */
+  public void remove(UUID uuid) {
+    lastInteractions.remove(uuid);
+  }
+
+  /**
+   * Forgets the cooldowns of all players with the npc, e.g. because it got removed
+   *
+   * @param entityId the entity id of the npc
+   */
+  public void removeNPC(int entityId) {
+    for (Int2ObjectMap<AtomicLongArray> npcs : lastInteractions.values()) {
+      npcs.remove(entityId);
+    }
+  }
+
+  private static AtomicLongArray createTimestamps() {
+    AtomicLongArray timestamps = new AtomicLongArray(CLICK_TYPES.length);
+    for (int i = 0; i < CLICK_TYPES.length; i++) {
+      timestamps.set(i, NEVER);
+    }
+    return timestamps;
+  }
+
+}
@@ -0,0 +1,354 @@
+package dev.crystall.playernpclib.manager;
+
+import dev.crystall.playernpclib.Constants;
+import dev.crystall.playernpclib.api.base.BasePlayerNPC;
+import dev.crystall.playernpclib.manager.SpatialIndex.Cell;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+/**
+ * Decides which npcs are shown to which player. Every player subscribes to the square of cells of the {@link SpatialIndex} around the cell they
+ * are standing in. Crossing a cell border (or a vertical section of the same size) diffs the subscribed cells and checks all of their npcs.
+ * <p>
+ * While the player stays within the same cell and section, only the npcs whose view or hide distance runs through that cube can change their
+ * state. These are collected during the diff and checked against their exact distances on every block move of the player. Moving npcs are
+ * checked against the players subscribed to their cell, with the positions of the tick's {@link PlayerSnapshot}.
+ * <p>
+ * Npcs with restricted visibility are never shown or hidden automatically.
+ * <p>
+ * Created by CrystallDEV on 18/10/2026
+ */
+public class InterestManager implements SpatialIndex.CellListener {
+
+  private static final BasePlayerNPC[] NO_NPCS = new BasePlayerNPC[0];
+
+  private final EntityManager entityManager;
+  private final SpatialIndex spatialIndex;
+
+  // player / current subscription
+  private final Map<UUID, Subscription> subscriptions = new HashMap<>();
+  // world / cell key / players subscribed to that cell
+  private final Map<UUID, Long2ObjectMap<Set<Player>>> subscribersByCell = new HashMap<>();
+
+  // The largest hide distance of any registered npc, the subscriptions have to cover it
+  private double maxHideDistance = Constants.NPC_VISIBILITY_RANGE + Constants.NPC_VISIBILITY_HYSTERESIS;
+
+  public InterestManager(EntityManager entityManager, SpatialIndex spatialIndex) {
+    this.entityManager = entityManager;
+    this.spatialIndex = spatialIndex;
+    spatialIndex.setCellListener(this);
+  }
+
+  /**
+   * Updates the subscription of the player with its current location
+   *
+   * @param player the player that moved
+   */
+  public void updatePlayer(Player player) {
+    updatePlayer(player, player.getLocation());
+  }
+
+  /**
+   * Updates the subscription of the player. As long as the player stays in the same cell and section, only the npcs close to their view or
+   * hide distance are checked.
+   *
+   * @param player the player that moved
+   * @param location the new location of the player
+   */
+  public void updatePlayer(Player player, Location location) {
+    World world = location.getWorld();
+    if (world == null) {
+      return;
+    }
+    int cellX = spatialIndex.toCell(location.getX());
+    int cellZ = spatialIndex.toCell(location.getZ());
+    int section = spatialIndex.toCell(location.getY());
+    int radius = getViewRadiusInCells();
+    Subscription oldSubscription = subscriptions.get(player.getUniqueId());
+    if (oldSubscription != null && oldSubscription.isAt(world.getUID(), cellX, cellZ, section, radius)) {
+      if (!oldSubscription.watched().isEmpty()) {
+        // Copy, showing or hiding npcs calls events which might change the watched npcs
+        for (BasePlayerNPC npc : oldSubscription.watched().toArray(NO_NPCS)) {
+          evaluate(player, world, location.getX(), location.getY(), location.getZ(), npc);
+        }
+      }
+      return;
+    }
+
+    Subscription newSubscription = new Subscription(new Cell(world.getUID(), cellX, cellZ), section, radius, new ReferenceOpenHashSet<>());
+    subscriptions.put(player.getUniqueId(), newSubscription);
+
+    // Hide the npcs of the cells that are left before showing the new ones
+    if (oldSubscription != null) {
+      for (Cell cell : oldSubscription.getCells()) {
+        if (!newSubscription.contains(cell)) {
+          unsubscribe(player, cell);
+          for (BasePlayerNPC npc : new ArrayList<>(spatialIndex.getInCell(cell))) {
+            leave(player, npc);
+          }
+        }
+      }
+    }
+    for (Cell cell : newSubscription.getCells()) {
+      if (oldSubscription == null || !oldSubscription.contains(cell)) {
+        subscribe(player, cell);
+      }
+      for (BasePlayerNPC npc : new ArrayList<>(spatialIndex.getInCell(cell))) {
+        evaluate(player, world, location.getX(), location.getY(), location.getZ(), npc);
+        watch(newSubscription, npc);
+      }
+    }
+  }
+
+  /**
+   * Removes all subscriptions of the player. This does not hide any npcs.
+   *
+   * @param player the player to remove
+   */
+  public void removePlayer(Player player) {
+    Subscription subscription = subscriptions.remove(player.getUniqueId());
+    if (subscription == null) {
+      return;
+    }
+    for (Cell cell : subscription.getCells()) {
+      unsubscribe(player, cell);
+    }
+  }
+
+  @Override
+  public void onCellChange(BasePlayerNPC npc, Cell from, Cell to) {
+    if (to == null) {
+      // Removed npcs take care of hiding themselves
+      if (from != null) {
+        for (Player player : getSubscribers(from)) {
+          unwatch(player, npc);
+        }
+      }
+      return;
+    }
+    if (from == null) {
+      maxHideDistance = Math.max(maxHideDistance, npc.getHideDistance());
+    }
+    update(npc, to);
+    if (from == null) {
+      return;
+    }
+    for (Player player : getSubscribers(from)) {
+      Subscription subscription = subscriptions.get(player.getUniqueId());
+      if (subscription == null || !subscription.contains(to)) {
+        leave(player, npc);
+        unwatch(player, npc);
+      }
+    }
+  }
+
+  /**
+   * Checks the view and hide distance of the npc for every player subscribed to its cell, e.g. after it moved within its cell
+   *
+   * @param npc the npc that moved
+   */
+  public void updateNPC(BasePlayerNPC npc) {
+    if (!spatialIndex.contains(npc)) {
+      return;
+    }
+    Cell cell = spatialIndex.getCell(npc.getLocation());
+    if (cell != null) {
+      update(npc, cell);
+    }
+  }
+
+  /**
+   * Makes sure the subscriptions are large enough for the hide distance of the given npc and applies the new distances to the players
+   * subscribed to its cell. Existing subscriptions grow with the next cell change of their player.
+   *
+   * @param npc the npc that changed its view distance
+   */
+  public void updateViewDistance(BasePlayerNPC npc) {
+    maxHideDistance = Math.max(maxHideDistance, npc.getHideDistance());
+    updateNPC(npc);
+  }
+
+  /**
+   * The amount of cells in every direction a player is subscribed to. This is limited by the view distance of the server, since bukkit
+   * does not track anything further away.
+   *
+   * @return the subscription radius in cells
+   */
+  public int getViewRadiusInCells() {
+    double range = Math.min(maxHideDistance, Bukkit.getViewDistance() << 4);
+    return (int) Math.ceil(range / spatialIndex.getCellSize());
+  }
+
+  private void update(BasePlayerNPC npc, Cell cell) {
+    PlayerSnapshot snapshot = entityManager.getTickScheduler().getPlayerSnapshot();
+    for (Player player : getSubscribers(cell)) {
+      int index = snapshot.indexOf(player);
+      if (index != -1) {
+        evaluate(player, snapshot.getWorld(index), snapshot.getX(index), snapshot.getY(index), snapshot.getZ(index), npc);
+      } else {
+        // Joined after the snapshot of this tick was taken
+        Location location = player.getLocation();
+        evaluate(player, location.getWorld(), location.getX(), location.getY(), location.getZ(), npc);
+      }
+      Subscription subscription = subscriptions.get(player.getUniqueId());
+      if (subscription != null) {
+        watch(subscription, npc);
+      }
+    }
+  }
+
+  /**
+   * Shows the npc once the player is within its view distance and hides it once the player is outside its hide distance
+   */
+  private void evaluate(Player player, World world, double x, double y, double z, BasePlayerNPC npc) {
+    if (npc.isVisibilityRestricted()) {
+      return;
+    }
+    boolean shown = entityManager.canSee(player, npc);
+    if (!shown && entityManager.inRangeOf(world, x, y, z, npc, npc.getViewDistance())) {
+      entityManager.showNPC(player, npc);
+    } else if (shown && !entityManager.inRangeOf(world, x, y, z, npc, npc.getHideDistance())) {
+      entityManager.hideNPC(player, npc);
+    }
+  }
+
+  /**
+   * Watches the npc for the block moves of the player if its view or hide distance runs through the cube the player can move in without
+   * crossing into another cell or section
+   */
+  private void watch(Subscription subscription, BasePlayerNPC npc) {
+    if (npc.isVisibilityRestricted()) {
+      subscription.watched().remove(npc);
+      return;
+    }
+    Location location = npc.getLocation();
+    int cellSize = spatialIndex.getCellSize();
+    double minX = (double) subscription.center().x() * cellSize;
+    double minY = (double) subscription.section() * cellSize;
+    double minZ = (double) subscription.center().z() * cellSize;
+    double nearest = squared(distanceToRange(location.getX(), minX, cellSize)) + squared(distanceToRange(location.getY(), minY, cellSize))
+      + squared(distanceToRange(location.getZ(), minZ, cellSize));
+    double farthest = squared(farthestInRange(location.getX(), minX, cellSize)) + squared(farthestInRange(location.getY(), minY, cellSize))
+      + squared(farthestInRange(location.getZ(), minZ, cellSize));
+    double viewRange = EntityManager.getEffectiveRange(npc.getViewDistance());
+    double hideRange = EntityManager.getEffectiveRange(npc.getHideDistance());
+    boolean crossesView = nearest <= viewRange * viewRange && farthest > viewRange * viewRange;
+    boolean crossesHide = nearest <= hideRange * hideRange && farthest > hideRange * hideRange;
+    if (crossesView || crossesHide) {
+      subscription.watched().add(npc);
+    } else {
+      subscription.watched().remove(npc);
+    }
+  }
+
+  private void unwatch(Player player, BasePlayerNPC npc) {
+    Subscription subscription = subscriptions.get(player.getUniqueId());
+    if (subscription != null) {
+      subscription.watched().remove(npc);
+    }
+  }
+
+  /**
+   * @return the distance of the coordinate to the range [min, min + size]
+   */
+  private static double distanceToRange(double coordinate, double min, double size) {
+    return coordinate < min ? min - coordinate : Math.max(0, coordinate - min - size);
+  }
+
+  /**
+   * @return the distance of the coordinate to the farthest end of the range [min, min + size]
+   */
+  private static double farthestInRange(double coordinate, double min, double size) {
+    return Math.max(Math.abs(coordinate - min), Math.abs(coordinate - min - size));
+  }
+
+  private static double squared(double value) {
+    return value * value;
+  }
+
+  private void leave(Player player, BasePlayerNPC npc) {
+    if (npc.isVisibilityRestricted() || !entityManager.canSee(player, npc)) {
+      return;
+    }
+    entityManager.hideNPC(player, npc);
+  }
+
+  private List<Player> getSubscribers(Cell cell) {
+    Long2ObjectMap<Set<Player>> cells = subscribersByCell.get(cell.worldId());
+    if (cells == null) {
+      return Collections.emptyList();
+    }
+    Set<Player> players = cells.get(cell.key());
+    // Copy, since showing or hiding npcs calls events which might move players
+    return players == null ? Collections.emptyList() : new ArrayList<>(players);
+  }
+
+  private void subscribe(Player player, Cell cell) {
+    Long2ObjectMap<Set<Player>> cells = subscribersByCell.computeIfAbsent(cell.worldId(), id -> new Long2ObjectOpenHashMap<>());
+    Set<Player> players = cells.get(cell.key());
+    if (players == null) {
+      players = new HashSet<>();
+      cells.put(cell.key(), players);
+    }
+    players.add(player);
+  }
+
+  private void unsubscribe(Player player, Cell cell) {
+    Long2ObjectMap<Set<Player>> cells = subscribersByCell.get(cell.worldId());
+    if (cells == null) {
+      return;
+    }
+    Set<Player> players = cells.get(cell.key());
+    if (players != null && players.remove(player) && players.isEmpty()) {
+      cells.remove(cell.key());
+    }
+  }
+
+  /**
+   * The square of cells a player is subscribed to
+   *
+   * @param center the cell the player is standing in
+   * @param section the vertical section of the cell size the player is standing in
+   * @param radius the amount of cells in every direction
+   * @param watched the npcs that have to be checked on every block move of the player
+   */
+  private record Subscription(Cell center, int section, int radius, Set<BasePlayerNPC> watched) {
+
+    boolean isAt(UUID worldId, int cellX, int cellZ, int section, int radius) {
+      return center.x() == cellX && center.z() == cellZ && this.section == section && this.radius == radius && center.worldId().equals(worldId);
+    }
+
+    boolean contains(Cell cell) {
+      return cell != null && cell.worldId().equals(center.worldId())
+        && Math.abs(cell.x() - center.x()) <= radius
+        && Math.abs(cell.z() - center.z()) <= radius;
+    }
+
+    Cell[] getCells() {
+      int size = radius * 2 + 1;
+      Cell[] cells = new Cell[size * size];
+      int i = 0;
+      for (int x = center.x() - radius; x <= center.x() + radius; x++) {
+        for (int z = center.z() - radius; z <= center.z() + radius; z++) {
+          cells[i++] = new Cell(center.worldId(), x, z);
+        }
+      }
+      return cells;
+    }
+
+  }
+
+}
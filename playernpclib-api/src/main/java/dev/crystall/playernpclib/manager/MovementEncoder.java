@@ -0,0 +1,211 @@
+package dev.crystall.playernpclib.manager;
+
+import com.comphenix.protocol.events.PacketContainer;
+import dev.crystall.playernpclib.Constants;
+import dev.crystall.playernpclib.api.base.BasePlayerNPC;
+import dev.crystall.playernpclib.api.base.MovablePlayerNPC;
+import dev.crystall.playernpclib.wrapper.BaseWrapperPlayServerEntityHeadRotation;
+import dev.crystall.playernpclib.wrapper.BaseWrapperPlayServerEntityLook;
+import dev.crystall.playernpclib.wrapper.BaseWrapperPlayServerEntityTeleport;
+import dev.crystall.playernpclib.wrapper.BaseWrapperPlayServerRelEntityMove;
+import dev.crystall.playernpclib.wrapper.BaseWrapperPlayServerRelEntityMoveLook;
+import dev.crystall.playernpclib.wrapper.DirectPacketFactory;
+import dev.crystall.playernpclib.wrapper.WrapperFactory;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+
+/**
+ * Keeps track of the last position and rotation that was sent for every npc and encodes the movement since then like the vanilla entity
+ * tracker does. Small movements are sent as relative moves, rotations as look packets and nothing is sent if the npc did not change. A full
+ * teleport is only sent for the first update, for jumps that do not fit into a relative move and every
+ * {@link Constants#NPC_MOVEMENT_RESYNC_PERIOD} ticks to correct rounding errors on the client.
+ * <p>
+ * All viewers of an npc have to receive the same packets, otherwise their positions drift apart. Call {@link #reset(BasePlayerNPC)} whenever
+ * the npc gets spawned for a player.
+ * <p>
+ * Created by CrystallDEV on 18/10/2026
+ */
+public class MovementEncoder {
+
+  private final Map<BasePlayerNPC, SentState> sentStates = new Reference2ObjectOpenHashMap<>();
+
+  /**
+   * Encodes the movement of the npc since the last call
+   *
+   * @param npc the npc to encode
+   * @return the packets to send to every viewer, empty if nothing changed
+   */
+  public List<PacketContainer> encode(BasePlayerNPC npc) {
+    Location location = npc.getLocation();
+    long x = encodePosition(location.getX());
+    long y = encodePosition(location.getY());
+    long z = encodePosition(location.getZ());
+    byte yaw = encodeAngle(location.getYaw());
+    byte pitch = encodeAngle(location.getPitch());
+    Location eyeLocation = npc.getEyeLocation() != null ? npc.getEyeLocation() : location;
+    byte headYaw = encodeAngle(eyeLocation.getYaw() % 360.0F);
+    boolean onGround = isOnGround(npc);
+    int currentTick = Bukkit.getCurrentTick();
+
+    SentState state = sentStates.get(npc);
+    List<PacketContainer> packets = new ArrayList<>(2);
+    boolean teleport = state == null || currentTick - state.teleportTick >= Constants.NPC_MOVEMENT_RESYNC_PERIOD
+      || !fitsInShort(x - state.x) || !fitsInShort(y - state.y) || !fitsInShort(z - state.z);
+    if (teleport) {
+      if (state == null) {
+        state = new SentState();
+        sentStates.put(npc, state);
+      }
+      packets.add(createTeleport(npc, location, onGround));
+      state.teleportTick = currentTick;
+    } else {
+      boolean moved = x != state.x || y != state.y || z != state.z;
+      boolean rotated = yaw != state.yaw || pitch != state.pitch;
+      short dx = (short) (x - state.x);
+      short dy = (short) (y - state.y);
+      short dz = (short) (z - state.z);
+      PacketContainer directPacket = moved || rotated ? createDirect(npc.getEntityId(), moved, rotated, dx, dy, dz, yaw, pitch, onGround) : null;
+      if (directPacket != null) {
+        packets.add(directPacket);
+      } else if (moved && rotated) {
+        BaseWrapperPlayServerRelEntityMoveLook wrapper = WrapperFactory.getProvider().createRelEntityMoveLook();
+        wrapper.setEntityID(npc.getEntityId());
+        wrapper.setDx(dx);
+        wrapper.setDy(dy);
+        wrapper.setDz(dz);
+        wrapper.setYaw(location.getYaw());
+        wrapper.setPitch(location.getPitch());
+        wrapper.setOnGround(onGround);
+        packets.add(wrapper.getHandle());
+      } else if (moved) {
+        BaseWrapperPlayServerRelEntityMove wrapper = WrapperFactory.getProvider().createRelEntityMove();
+        wrapper.setEntityID(npc.getEntityId());
+        wrapper.setDx(dx);
+        wrapper.setDy(dy);
+        wrapper.setDz(dz);
+        wrapper.setOnGround(onGround);
+        packets.add(wrapper.getHandle());
+      } else if (rotated) {
+        BaseWrapperPlayServerEntityLook wrapper = WrapperFactory.getProvider().createEntityLook();
+        wrapper.setEntityID(npc.getEntityId());
+        wrapper.setYaw(location.getYaw());
+        wrapper.setPitch(location.getPitch());
+        wrapper.setOnGround(onGround);
+        packets.add(wrapper.getHandle());
+      }
+      if (headYaw == state.headYaw && packets.isEmpty()) {
+        return Collections.emptyList();
+      }
+    }
+    if (teleport || headYaw != state.headYaw) {
+      BaseWrapperPlayServerEntityHeadRotation headWrapper = WrapperFactory.getProvider().createEntityHeadRotation();
+      headWrapper.setEntityID(npc.getEntityId());
+      headWrapper.setHeadYaw(headYaw);
+      packets.add(headWrapper.getHandle());
+    }
+
+    state.x = x;
+    state.y = y;
+    state.z = z;
+    state.yaw = yaw;
+    state.pitch = pitch;
+    state.headYaw = headYaw;
+    return packets;
+  }
+
+  /**
+   * Forces a full teleport on the next update of the npc
+   *
+   * @param npc the npc to reset
+   */
+  public void reset(BasePlayerNPC npc) {
+    sentStates.remove(npc);
+  }
+
+  public void remove(BasePlayerNPC npc) {
+    sentStates.remove(npc);
+  }
+
+  /**
+   * Builds the relative movement with the vanilla constructors, skipping the structure modifiers of ProtocolLib
+   *
+   * @return the packet or null if the direct packet path is not available or just failed
+   */
+  private static PacketContainer createDirect(int entityId, boolean moved, boolean rotated, short dx, short dy, short dz, byte yaw, byte pitch,
+    boolean onGround) {
+    DirectPacketFactory directPackets = PacketManager.getDirectPacketFactory();
+    if (directPackets == null) {
+      return null;
+    }
+    try {
+      Object packet;
+      if (moved && rotated) {
+        packet = directPackets.createRelEntityMoveLook(entityId, dx, dy, dz, yaw, pitch, onGround);
+      } else if (moved) {
+        packet = directPackets.createRelEntityMove(entityId, dx, dy, dz, onGround);
+      } else {
+        packet = directPackets.createEntityLook(entityId, yaw, pitch, onGround);
+      }
+      return PacketContainer.fromPacket(packet);
+    } catch (IllegalStateException exception) {
+      // The wrappers take over from now on
+      PacketManager.disableDirectPackets(exception);
+      return null;
+    }
+  }
+
+  private static PacketContainer createTeleport(BasePlayerNPC npc, Location location, boolean onGround) {
+    BaseWrapperPlayServerEntityTeleport wrapper = WrapperFactory.getProvider().createEntityTeleport();
+    wrapper.setEntityID(npc.getEntityId());
+    wrapper.setX(location.getX());
+    wrapper.setY(location.getY());
+    wrapper.setZ(location.getZ());
+    wrapper.setYaw(location.getYaw());
+    wrapper.setPitch(location.getPitch());
+    wrapper.setOnGround(onGround);
+    return wrapper.getHandle();
+  }
+
+  private static boolean isOnGround(BasePlayerNPC npc) {
+    if (npc instanceof MovablePlayerNPC movablePlayerNPC && movablePlayerNPC.getBukkitLivingEntity() != null) {
+      return movablePlayerNPC.getBukkitLivingEntity().isOnGround();
+    }
+    return true;
+  }
+
+  /**
+   * Positions are sent in steps of 1/4096 of a block
+   */
+  private static long encodePosition(double value) {
+    return Math.round(value * 4096.0D);
+  }
+
+  /**
+   * Same conversion as the wrappers use for yaw and pitch
+   */
+  private static byte encodeAngle(float value) {
+    return (byte) (value * 256.0F / 360.0F);
+  }
+
+  private static boolean fitsInShort(long value) {
+    return value >= Short.MIN_VALUE && value <= Short.MAX_VALUE;
+  }
+
+  private static class SentState {
+
+    private long x;
+    private long y;
+    private long z;
+    private byte yaw;
+    private byte pitch;
+    private byte headYaw;
+    private int teleportTick;
+
+  }
+
+}
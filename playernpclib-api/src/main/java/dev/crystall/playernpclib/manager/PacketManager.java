@@ -1,46 +1,125 @@
 package dev.crystall.playernpclib.manager;
 
+import com.comphenix.protocol.PacketType;
 import com.comphenix.protocol.ProtocolLibrary;
 import com.comphenix.protocol.events.PacketContainer;
 import com.comphenix.protocol.wrappers.EnumWrappers;
 import com.comphenix.protocol.wrappers.EnumWrappers.EntityPose;
 import com.comphenix.protocol.wrappers.EnumWrappers.ItemSlot;
+import com.comphenix.protocol.wrappers.EnumWrappers.NativeGameMode;
+import com.comphenix.protocol.wrappers.EnumWrappers.PlayerInfoAction;
 import com.comphenix.protocol.wrappers.Pair;
+import com.comphenix.protocol.wrappers.PlayerInfoData;
 import com.comphenix.protocol.wrappers.WrappedDataWatcher;
 import com.comphenix.protocol.wrappers.WrappedDataWatcher.WrappedDataWatcherObject;
+import com.comphenix.protocol.wrappers.WrappedGameProfile;
 import dev.crystall.playernpclib.Constants;
 import dev.crystall.playernpclib.PlayerNPCLib;
 import dev.crystall.playernpclib.api.base.BasePlayerNPC;
-import dev.crystall.playernpclib.nms_v1_20_R2.wrappers.*;
 import dev.crystall.playernpclib.wrapper.*;
+import lombok.Setter;
+import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.bukkit.scoreboard.Team.OptionStatus;
 
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
-
-import static dev.crystall.playernpclib.wrapper.WrapperFactory.*;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
 
 /**
  * Created by CrystallDEV on 01/09/2020
  */
 public class PacketManager {
 
+  /**
+   * Sends the hot packets (movement, head rotation, equipment, animation) straight to the player connection if the server version supports
+   * it. ProtocolLib is used otherwise.
+   */
+  @Setter
+  private static boolean directPacketsEnabled = true;
+
+  /**
+   * Wraps the spawn packets of an npc and the queued packets of a tick into bundle packets on versions that support it, so the client handles
+   * them in the same tick and never renders a half built npc.
+   */
+  @Setter
+  private static boolean bundlePacketsEnabled = true;
+
+  /**
+   * Queues the packets sent on the main thread and writes them at the end of the tick, see {@link PacketQueue}
+   */
+  @Setter
+  private static boolean packetQueueEnabled = true;
+
+  // The client rejects bundles with more packets
+  private static final int MAX_BUNDLE_SIZE = 4096;
+  // Packets that are written through the direct packet path if available
+  private static final Set<PacketType> DIRECT_TYPES = Set.of(
+    PacketType.Play.Server.ENTITY_TELEPORT,
+    PacketType.Play.Server.REL_ENTITY_MOVE,
+    PacketType.Play.Server.REL_ENTITY_MOVE_LOOK,
+    PacketType.Play.Server.ENTITY_LOOK,
+    PacketType.Play.Server.ENTITY_HEAD_ROTATION,
+    PacketType.Play.Server.ENTITY_EQUIPMENT,
+    PacketType.Play.Server.ANIMATION
+  );
+  private static final PacketQueue PACKET_QUEUE = new PacketQueue();
+
   private PacketManager() {
   }
 
+  /**
+   * @return true if the spawn packets and the queued packets are sent as bundle packets
+   */
+  public static boolean isBundlingPackets() {
+    MinecraftVersions serverVersion = WrapperFactory.getServerVersion();
+    return bundlePacketsEnabled && serverVersion != null && serverVersion.supportsBundlePackets();
+  }
+
+  /**
+   * @return the direct packet path of the server version or null if it is disabled or not available
+   */
+  public static DirectPacketFactory getDirectPacketFactory() {
+    WrapperProvider provider = WrapperFactory.getProvider();
+    return directPacketsEnabled && provider != null ? provider.getDirectPacketFactory() : null;
+  }
+
+  /**
+   * Turns the direct packet path off after it failed, all packets go through ProtocolLib afterwards
+   *
+   * @param exception the failure of the direct packet path
+   */
+  public static void disableDirectPackets(IllegalStateException exception) {
+    PlayerNPCLib.getPlugin().getLogger().warning("Disabling direct packets: " + exception.getMessage());
+    directPacketsEnabled = false;
+  }
+
   public static void sendScoreBoardTeamPacket(Player player, BasePlayerNPC npc) {
-    BaseWrapperPlayServerScoreboardTeam wrapperTeam = new WrapperGenerator<BaseWrapperPlayServerScoreboardTeam>().map(
-      BASE_WRAPPER_PLAY_SERVER_SCOREBOARD_TEAM);
+    sendScoreBoardTeamPacket(player, Collections.singletonList(npc.getInternalName()));
+  }
+
+  /**
+   * Adds all given npc names to the npc team of the player with a single packet
+   *
+   * @param player
+   * @param names the internal names of the npcs
+   */
+  public static void sendScoreBoardTeamPacket(Player player, List<String> names) {
+    BaseWrapperPlayServerScoreboardTeam wrapperTeam = WrapperFactory.getProvider().createScoreboardTeam();
     wrapperTeam.setName(Constants.NPC_TEAM_NAME);
     wrapperTeam.setMode(TeamMode.PLAYERS_ADDED);
-    wrapperTeam.setPlayers(Collections.singletonList(npc.getInternalName()));
+    wrapperTeam.setPlayers(names);
     sendPacket(player, wrapperTeam.getHandle(), false);
   }
 
   public static void sendScoreBoardTeamCreatePacket(Player player) {
-    BaseWrapperPlayServerScoreboardTeam wrapperTeam = new WrapperGenerator<BaseWrapperPlayServerScoreboardTeam>().map(BASE_WRAPPER_PLAY_SERVER_SCOREBOARD_TEAM);
+    BaseWrapperPlayServerScoreboardTeam wrapperTeam = WrapperFactory.getProvider().createScoreboardTeam();
     wrapperTeam.setName(Constants.NPC_TEAM_NAME);
     wrapperTeam.setMode(TeamMode.TEAM_CREATED);
     wrapperTeam.setNameTagVisibility(OptionStatus.ALWAYS.toString());
@@ -55,19 +134,92 @@ public class PacketManager {
    * @param npc
    */
   public static void sendNPCCreatePackets(Player player, BasePlayerNPC npc) {
-    // Add entity to player list
+    sendPackets(player, npc.getSpawnPackets());
+  }
+
+  /**
+   * Adds the player info entry of the npc to the player list of the player. On the main thread the entries of a tick are merged into a single
+   * packet, see {@link PlayerInfoEntries}.
+   *
+   * @param player
+   * @param npc
+   */
+  public static void sendPlayerInfoAddPacket(Player player, BasePlayerNPC npc) {
+    PlayerInfoData data = new PlayerInfoData(npc.getGameProfile(), 0, NativeGameMode.SURVIVAL, null);
+    if (packetQueueEnabled && Bukkit.isPrimaryThread()) {
+      PACKET_QUEUE.addPlayerInfo(player, data);
+      return;
+    }
+    writePacket(player, createPlayerInfoAddPacket(Collections.singletonList(data)));
+  }
+
+  /**
+   * Removes the player info entries with the given uuids from the player list of the player
+   *
+   * @param player
+   * @param uuids
+   */
+  public static void sendPlayerInfoRemovePacket(Player player, List<UUID> uuids) {
+    BaseWrapperPlayServerPlayerInfoRemove removeWrapper = WrapperFactory.getProvider().createPlayerInfoRemove();
+    if (removeWrapper != null) {
+      removeWrapper.setPlayers(uuids);
+      sendPacket(player, removeWrapper.getHandle(), false);
+      return;
+    }
+    // Versions before 1.19.3 remove entries through the player info packet, only the uuid of the profile is read
+    List<PlayerInfoData> data = new ArrayList<>(uuids.size());
+    for (UUID uuid : uuids) {
+      data.add(new PlayerInfoData(new WrappedGameProfile(uuid, null), 0, NativeGameMode.SURVIVAL, null));
+    }
+    BaseWrapperPlayServerPlayerInfo infoWrapper = WrapperFactory.getProvider().createPlayerInfo();
+    infoWrapper.setAction(PlayerInfoAction.REMOVE_PLAYER);
+    infoWrapper.setData(data);
+    sendPacket(player, infoWrapper.getHandle(), false);
+  }
+
+  static PacketContainer createPlayerInfoAddPacket(List<PlayerInfoData> data) {
+    BaseWrapperPlayServerPlayerInfo infoWrapper = WrapperFactory.getProvider().createPlayerInfo();
+    infoWrapper.setActions(EnumSet.of(PlayerInfoAction.ADD_PLAYER));
+    infoWrapper.setData(data);
+    return infoWrapper.getHandle();
+  }
+
+  /**
+   * Builds all packets a new viewer needs to see the npc (spawn, head rotation and equipment). The team membership is sent separately by
+   * the {@link TeamMembers}. The packets do not depend on the viewer,
+   * so the npc builds them once and sends the same list to every new viewer, see {@link BasePlayerNPC#getSpawnPackets()}. If the server
+   * version supports it, the packets are wrapped into a single bundle packet.
+   *
+   * @param npc
+   * @return an unmodifiable list of the packets in the order they have to be sent
+   */
+  public static List<PacketContainer> createSpawnPackets(BasePlayerNPC npc) {
+    List<PacketContainer> packets = new ArrayList<>(3);
+    packets.add(createSpawnPacket(npc));
+    if (npc.getEyeLocation() != null) {
+      packets.add(createHeadRotationPacket(npc));
+    }
+    packets.add(createEquipmentPacket(npc));
+    if (isBundlingPackets()) {
+      return Collections.singletonList(createBundlePacket(packets));
+    }
+    return Collections.unmodifiableList(packets);
+  }
+
+  private static PacketContainer createBundlePacket(List<PacketContainer> packets) {
+    PacketContainer bundle = new PacketContainer(PacketType.Play.Server.BUNDLE);
+    bundle.getPacketBundles().write(0, packets);
+    return bundle;
+  }
 
-    // Spawn entity
-    WrapperPlayServerNamedEntitySpawn spawnWrapper = new WrapperPlayServerNamedEntitySpawn();
+  private static PacketContainer createSpawnPacket(BasePlayerNPC npc) {
+    BaseWrapperPlayServerNamedEntitySpawn spawnWrapper = WrapperFactory.getProvider().createNamedEntitySpawn();
     spawnWrapper.setEntityID(npc.getEntityId());
     spawnWrapper.setPlayerUUID(npc.getUuid());
     spawnWrapper.setPosition(npc.getLocation().toVector());
     spawnWrapper.setPitch(npc.getLocation().getPitch());
     spawnWrapper.setYaw(npc.getLocation().getYaw());
-    sendPacket(player, spawnWrapper.getHandle(), false);
-
-    sendHeadRotationPacket(player, npc);
-
+    return spawnWrapper.getHandle();
   }
 
   /**
@@ -77,17 +229,54 @@ public class PacketManager {
    * @param npc
    */
   public static void sendMovePacket(Player player, BasePlayerNPC npc) {
+    broadcastMovePacket(Collections.singletonList(player), npc);
+  }
+
+  /**
+   * Sends position update packets to all given players. The packets are only built once.
+   *
+   * @param players
+   * @param npc
+   */
+  public static void broadcastMovePacket(Collection<? extends Player> players, BasePlayerNPC npc) {
+    if (players.isEmpty()) {
+      return;
+    }
     // Location update
-    WrapperPlayServerEntityTeleport moveWrapper = new WrapperPlayServerEntityTeleport();
+    BaseWrapperPlayServerEntityTeleport moveWrapper = WrapperFactory.getProvider().createEntityTeleport();
     moveWrapper.setEntityID(npc.getEntityId());
     moveWrapper.setX(npc.getLocation().getX());
     moveWrapper.setY(npc.getLocation().getY());
     moveWrapper.setZ(npc.getLocation().getZ());
     moveWrapper.setYaw(npc.getLocation().getYaw());
     moveWrapper.setPitch(npc.getLocation().getPitch());
-    sendPacket(player, moveWrapper.getHandle(), false);
+    broadcastPacket(players, moveWrapper.getHandle());
+
+    broadcastHeadRotationPacket(players, npc);
+  }
+
+  /**
+   * Sends already built packets to the given player, e.g. the movement packets of the {@link MovementEncoder}
+   *
+   * @param player
+   * @param packets
+   */
+  public static void sendPackets(Player player, List<PacketContainer> packets) {
+    for (PacketContainer packet : packets) {
+      sendPacket(player, packet, false);
+    }
+  }
 
-    sendHeadRotationPacket(player, npc);
+  /**
+   * Sends already built packets to all given players
+   *
+   * @param players
+   * @param packets
+   */
+  public static void broadcastPackets(Collection<? extends Player> players, List<PacketContainer> packets) {
+    for (PacketContainer packet : packets) {
+      broadcastPacket(players, packet);
+    }
   }
 
   /**
@@ -98,13 +287,27 @@ public class PacketManager {
    */
   public static void sendHidePackets(Player player, BasePlayerNPC npc) {
     // Remove entity
-    WrapperPlayServerEntityDestroy spawnWrapper = new WrapperPlayServerEntityDestroy();
-    spawnWrapper.setEntityIds(new int[]{npc.getEntityId()});
-    sendPacket(player, spawnWrapper.getHandle(), false);
+    sendDestroyPacket(player, npc.getEntityId());
 
     // Remove player from tab list if its still on there
   }
 
+  /**
+   * Destroys the entity at the client of the player. On the main thread the destroys of a tick are merged into a single packet.
+   *
+   * @param player
+   * @param entityId
+   */
+  public static void sendDestroyPacket(Player player, int entityId) {
+    if (packetQueueEnabled && Bukkit.isPrimaryThread()) {
+      PACKET_QUEUE.destroy(player, entityId);
+      return;
+    }
+    BaseWrapperPlayServerEntityDestroy destroyWrapper = WrapperFactory.getProvider().createEntityDestroy();
+    destroyWrapper.setEntityIds(new int[]{entityId});
+    writePacket(player, destroyWrapper.getHandle());
+  }
+
   /**
    * Sends packets to rotate an entities head
    *
@@ -112,18 +315,49 @@ public class PacketManager {
    * @param npc
    */
   public static void sendHeadRotationPacket(Player player, BasePlayerNPC npc) {
+    broadcastHeadRotationPacket(Collections.singletonList(player), npc);
+  }
+
+  /**
+   * Sends packets to rotate an entities head to all given players
+   *
+   * @param players
+   * @param npc
+   */
+  public static void broadcastHeadRotationPacket(Collection<? extends Player> players, BasePlayerNPC npc) {
     // Head rotation
-    if (npc.getEyeLocation() != null) {
-      WrapperPlayServerEntityHeadRotation headWrapper = new WrapperPlayServerEntityHeadRotation();
-      headWrapper.setEntityID(npc.getEntityId());
-      headWrapper.setHeadYaw((byte) ((npc.getEyeLocation().getYaw() % 360.0F) * 256.0F / 360.0F));
-      sendPacket(player, headWrapper.getHandle(), false);
+    if (npc.getEyeLocation() != null && !players.isEmpty()) {
+      broadcastPacket(players, createHeadRotationPacket(npc));
     }
   }
 
+  private static PacketContainer createHeadRotationPacket(BasePlayerNPC npc) {
+    BaseWrapperPlayServerEntityHeadRotation headWrapper = WrapperFactory.getProvider().createEntityHeadRotation();
+    headWrapper.setEntityID(npc.getEntityId());
+    headWrapper.setHeadYaw((byte) ((npc.getEyeLocation().getYaw() % 360.0F) * 256.0F / 360.0F));
+    return headWrapper.getHandle();
+  }
+
 
   public static void sendEquipmentPackets(Player player, BasePlayerNPC npc) {
-    WrapperPlayServerEntityEquipment wrapper = new WrapperPlayServerEntityEquipment();
+    broadcastEquipmentPackets(Collections.singletonList(player), npc);
+  }
+
+  /**
+   * Sends the equipment of the npc to all given players. The packet is only built once.
+   *
+   * @param players
+   * @param npc
+   */
+  public static void broadcastEquipmentPackets(Collection<? extends Player> players, BasePlayerNPC npc) {
+    if (players.isEmpty()) {
+      return;
+    }
+    broadcastPacket(players, createEquipmentPacket(npc));
+  }
+
+  private static PacketContainer createEquipmentPacket(BasePlayerNPC npc) {
+    BaseWrapperPlayServerEntityEquipment wrapper = WrapperFactory.getProvider().createEntityEquipment();
     wrapper.setEntityID(npc.getEntityId());
     wrapper.SetSlotStackPairLists(Arrays.asList(
       new Pair<>(ItemSlot.MAINHAND, npc.getItemSlots().get(ItemSlot.MAINHAND)),
@@ -133,19 +367,32 @@ public class PacketManager {
       new Pair<>(ItemSlot.CHEST, npc.getItemSlots().get(ItemSlot.CHEST)),
       new Pair<>(ItemSlot.HEAD, npc.getItemSlots().get(ItemSlot.HEAD))
     ));
-    sendPacket(player, wrapper.getHandle(), false);
+    return wrapper.getHandle();
   }
 
   public static void sendAnimationPacket(Player player, BasePlayerNPC npc, int animationID) {
-    WrapperPlayServerAnimation animationWrapper = new WrapperPlayServerAnimation();
+    broadcastAnimationPacket(Collections.singletonList(player), npc, animationID);
+  }
+
+  /**
+   * Plays the animation of the npc for all given players. The packet is only built once.
+   *
+   * @param players
+   * @param npc
+   * @param animationID
+   */
+  public static void broadcastAnimationPacket(Collection<? extends Player> players, BasePlayerNPC npc, int animationID) {
+    if (players.isEmpty()) {
+      return;
+    }
+    BaseWrapperPlayServerAnimation animationWrapper = WrapperFactory.getProvider().createAnimation();
     animationWrapper.setEntityID(npc.getEntityId());
     animationWrapper.setAnimation(animationID);
-    sendPacket(player, animationWrapper.getHandle(), false);
-
+    broadcastPacket(players, animationWrapper.getHandle());
   }
 
   public static void sendDeathMetaData(Player player, BasePlayerNPC npc) {
-    WrapperPlayServerEntityMetadata wrapperEntityMeta = new WrapperPlayServerEntityMetadata();
+    BaseWrapperPlayServerEntityMetadata wrapperEntityMeta = WrapperFactory.getProvider().createEntityMetadata();
     wrapperEntityMeta.setEntityID(npc.getEntityId());
 
     // Create the data watcher for this entity
@@ -158,19 +405,104 @@ public class PacketManager {
   }
 
   /**
-   * Sends the given packet to the given player
+   * Sends the queued packets of this tick. If the server version supports it, all packets of a player are wrapped into bundle packets, so
+   * they are written with a single flush. These bundles are written through the direct packet path if available, since they mostly hold the
+   * hot packets.
+   */
+  public static void flushQueuedPackets() {
+    PACKET_QUEUE.flush((player, packets) -> {
+      if (packets.size() == 1 || !isBundlingPackets()) {
+        for (PacketContainer packet : packets) {
+          writePacket(player, packet);
+        }
+        return;
+      }
+      // Bundles cannot be nested, so the spawn bundles are unpacked into the outer one
+      List<PacketContainer> flattened = new ArrayList<>(packets.size());
+      for (PacketContainer packet : packets) {
+        if (packet.getType() == PacketType.Play.Server.BUNDLE) {
+          packet.getPacketBundles().read(0).forEach(flattened::add);
+        } else {
+          flattened.add(packet);
+        }
+      }
+      for (int i = 0; i < flattened.size(); i += MAX_BUNDLE_SIZE) {
+        List<PacketContainer> chunk = flattened.subList(i, Math.min(flattened.size(), i + MAX_BUNDLE_SIZE));
+        if (chunk.size() == 1) {
+          writePacket(player, chunk.get(0));
+        } else {
+          writePacket(player, createBundlePacket(chunk), true);
+        }
+      }
+    });
+  }
+
+  /**
+   * Drops the queued packets of the player, e.g. because the player left the server
+   *
+   * @param player
+   */
+  public static void clearQueuedPackets(Player player) {
+    PACKET_QUEUE.remove(player.getUniqueId());
+  }
+
+  /**
+   * Sends the same packet to all given players
+   *
+   * @param players
+   * @param packetContainer
+   */
+  private static void broadcastPacket(Collection<? extends Player> players, PacketContainer packetContainer) {
+    for (Player player : players) {
+      sendPacket(player, packetContainer, false);
+    }
+  }
+
+  /**
+   * Queues the given packet for the given player. Packets sent from other threads or while the queue is disabled are written right away.
    *
    * @param player
    * @param packetContainer
    */
   private static void sendPacket(Player player, PacketContainer packetContainer, boolean debug) {
-      ProtocolLibrary.getProtocolManager().sendServerPacket(player, packetContainer);
-      if (debug) {
-        PlayerNPCLib.getPlugin().getServer().getConsoleSender().sendMessage(
-                "Sent packet " + packetContainer.getType().name() + " to " + player.name()
-        );
-      }
+    if (packetQueueEnabled && Bukkit.isPrimaryThread()) {
+      PACKET_QUEUE.add(player, packetContainer);
+    } else {
+      writePacket(player, packetContainer);
+    }
+    if (debug) {
+      PlayerNPCLib.getPlugin().getServer().getConsoleSender().sendMessage(
+              "Sent packet " + packetContainer.getType().name() + " to " + player.name()
+      );
+    }
+  }
 
+  /**
+   * Writes the given packet to the given player, through the direct packet path for the hot packets and through ProtocolLib otherwise
+   *
+   * @param player
+   * @param packetContainer
+   */
+  private static void writePacket(Player player, PacketContainer packetContainer) {
+    writePacket(player, packetContainer, DIRECT_TYPES.contains(packetContainer.getType()));
+  }
+
+  /**
+   * @param player
+   * @param packetContainer
+   * @param direct whether the packet should be written through the direct packet path if available
+   */
+  private static void writePacket(Player player, PacketContainer packetContainer, boolean direct) {
+    DirectPacketFactory directPackets = direct ? getDirectPacketFactory() : null;
+    if (directPackets != null) {
+      try {
+        directPackets.send(player, packetContainer.getHandle());
+        return;
+      } catch (IllegalStateException exception) {
+        disableDirectPackets(exception);
+      }
+    }
+    ProtocolLibrary.getProtocolManager().sendServerPacket(player, packetContainer);
   }
 
 }
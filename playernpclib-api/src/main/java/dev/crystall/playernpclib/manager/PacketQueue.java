@@ -0,0 +1,228 @@
+package dev.crystall.playernpclib.manager;
+
+import com.comphenix.protocol.PacketType;
+import com.comphenix.protocol.events.PacketContainer;
+import com.comphenix.protocol.wrappers.PlayerInfoData;
+import dev.crystall.playernpclib.wrapper.BaseWrapperPlayServerEntityDestroy;
+import dev.crystall.playernpclib.wrapper.WrapperFactory;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import org.bukkit.entity.Player;
+
+/**
+ * Collects the outgoing npc packets of every player during a tick and sends them at the end of the tick. Packets that are superseded by a later
+ * packet of the same npc are dropped before sending:
+ * <ul>
+ *   <li>a teleport replaces all earlier movement of the npc</li>
+ *   <li>the latest head rotation wins</li>
+ *   <li>the latest equipment wins, it always contains every slot</li>
+ * </ul>
+ * Spawn, destroy and bundle packets keep the order of everything queued around them. The destroys of a tick are merged into one packet until
+ * the next spawn, the player info entries of a tick into one packet in front of the first spawn. This is only accessed from the main thread.
+ * <p>
+ * Created by CrystallDEV on 18/10/2026
+ */
+public class PacketQueue {
+
+  // player / packets queued for that player
+  private final Map<UUID, PlayerQueue> queues = new HashMap<>();
+
+  /**
+   * Queues the packet for the player
+   *
+   * @param player the receiver
+   * @param packet the packet to send at the end of the tick
+   */
+  public void add(Player player, PacketContainer packet) {
+    getQueue(player).add(packet);
+  }
+
+  /**
+   * Queues the destroy of the entity for the player. All destroys of a tick that are not separated by a spawn are merged into a single destroy
+   * packet.
+   *
+   * @param player the receiver
+   * @param entityId the id of the entity to destroy
+   */
+  public void destroy(Player player, int entityId) {
+    getQueue(player).destroy(entityId);
+  }
+
+  /**
+   * Queues a player info entry for the player. All entries of a tick are added with a single packet, which is sent before everything queued
+   * after the first entry (e.g. the spawn packets of the npcs).
+   *
+   * @param player the receiver
+   * @param data the entry to add
+   */
+  public void addPlayerInfo(Player player, PlayerInfoData data) {
+    getQueue(player).addPlayerInfo(data);
+  }
+
+  /**
+   * Drops all packets queued for the player, e.g. because the player left the server
+   *
+   * @param uuid the uuid of the player
+   */
+  public void remove(UUID uuid) {
+    queues.remove(uuid);
+  }
+
+  public boolean isEmpty() {
+    return queues.isEmpty();
+  }
+
+  /**
+   * Hands the remaining packets of every player to the sender and empties the queue
+   *
+   * @param sender gets called once per player with all packets for that player in the order they have to be sent
+   */
+  public void flush(BiConsumer<Player, List<PacketContainer>> sender) {
+    if (queues.isEmpty()) {
+      return;
+    }
+    List<PlayerQueue> pending = new ArrayList<>(queues.values());
+    queues.clear();
+    for (PlayerQueue queue : pending) {
+      List<PacketContainer> packets = queue.drain();
+      if (!packets.isEmpty() && queue.player.isOnline()) {
+        sender.accept(queue.player, packets);
+      }
+    }
+  }
+
+  private PlayerQueue getQueue(Player player) {
+    PlayerQueue queue = queues.get(player.getUniqueId());
+    if (queue == null) {
+      queue = new PlayerQueue(player);
+      queues.put(player.getUniqueId(), queue);
+    }
+    return queue;
+  }
+
+  private static class PlayerQueue {
+
+    private final Player player;
+    // Superseded packets are set to null instead of being removed
+    private final List<PacketContainer> packets = new ArrayList<>();
+    // entity id / positions of the packets that can still be superseded
+    private final Int2ObjectMap<EntityPackets> entities = new Int2ObjectOpenHashMap<>();
+    // position / ids of the merged destroy packets, these are built when the queue is drained
+    private final Int2ObjectMap<IntArrayList> destroys = new Int2ObjectOpenHashMap<>();
+    // The destroy that still takes more ids, closed by the next spawn
+    private IntArrayList openDestroy;
+    // The entries of the player info packet of this tick and its position
+    private List<PlayerInfoData> playerInfo;
+    private int playerInfoPosition = -1;
+
+    PlayerQueue(Player player) {
+      this.player = player;
+    }
+
+    void add(PacketContainer packet) {
+      PacketType type = packet.getType();
+      if (type == PacketType.Play.Server.ENTITY_TELEPORT) {
+        EntityPackets entity = getEntity(packet);
+        discard(entity.movement);
+        entity.movement.add(packets.size());
+      } else if (type == PacketType.Play.Server.REL_ENTITY_MOVE || type == PacketType.Play.Server.REL_ENTITY_MOVE_LOOK
+        || type == PacketType.Play.Server.ENTITY_LOOK) {
+        // Relative movement builds on everything before it
+        getEntity(packet).movement.add(packets.size());
+      } else if (type == PacketType.Play.Server.ENTITY_HEAD_ROTATION) {
+        EntityPackets entity = getEntity(packet);
+        discard(entity.headRotation);
+        entity.headRotation = packets.size();
+      } else if (type == PacketType.Play.Server.ENTITY_EQUIPMENT) {
+        EntityPackets entity = getEntity(packet);
+        discard(entity.equipment);
+        entity.equipment = packets.size();
+      } else if (type == PacketType.Play.Server.NAMED_ENTITY_SPAWN || type == PacketType.Play.Server.ENTITY_DESTROY
+        || type == PacketType.Play.Server.BUNDLE) {
+        // Nothing before a (re)spawn or destroy may be moved behind it
+        entities.clear();
+        if (type != PacketType.Play.Server.ENTITY_DESTROY) {
+          // A destroy after a spawn must not be merged into one before it
+          openDestroy = null;
+        }
+      }
+      packets.add(packet);
+    }
+
+    void destroy(int entityId) {
+      entities.clear();
+      if (openDestroy == null) {
+        openDestroy = new IntArrayList();
+        destroys.put(packets.size(), openDestroy);
+        packets.add(null);
+      }
+      openDestroy.add(entityId);
+    }
+
+    void addPlayerInfo(PlayerInfoData data) {
+      if (playerInfo == null) {
+        playerInfo = new ArrayList<>();
+        playerInfoPosition = packets.size();
+        packets.add(null);
+      }
+      playerInfo.add(data);
+    }
+
+    List<PacketContainer> drain() {
+      List<PacketContainer> result = new ArrayList<>(packets.size());
+      for (int i = 0; i < packets.size(); i++) {
+        IntArrayList destroyIds = destroys.get(i);
+        if (i == playerInfoPosition) {
+          result.add(PacketManager.createPlayerInfoAddPacket(playerInfo));
+        } else if (destroyIds != null) {
+          BaseWrapperPlayServerEntityDestroy wrapper = WrapperFactory.getProvider().createEntityDestroy();
+          wrapper.setEntityIds(destroyIds.toIntArray());
+          result.add(wrapper.getHandle());
+        } else if (packets.get(i) != null) {
+          result.add(packets.get(i));
+        }
+      }
+      return result;
+    }
+
+    private EntityPackets getEntity(PacketContainer packet) {
+      int entityId = packet.getIntegers().read(0);
+      EntityPackets entity = entities.get(entityId);
+      if (entity == null) {
+        entity = new EntityPackets();
+        entities.put(entityId, entity);
+      }
+      return entity;
+    }
+
+    private void discard(IntArrayList positions) {
+      for (int i = 0; i < positions.size(); i++) {
+        packets.set(positions.getInt(i), null);
+      }
+      positions.clear();
+    }
+
+    private void discard(int position) {
+      if (position != -1) {
+        packets.set(position, null);
+      }
+    }
+
+  }
+
+  private static class EntityPackets {
+
+    private final IntArrayList movement = new IntArrayList();
+    private int headRotation = -1;
+    private int equipment = -1;
+
+  }
+
+}
@@ -0,0 +1,78 @@
+package dev.crystall.playernpclib.manager;
+
+import dev.crystall.playernpclib.Constants;
+import dev.crystall.playernpclib.api.base.BasePlayerNPC;
+import it.unimi.dsi.fastutil.objects.Object2LongMap;
+import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+/**
+ * Adds the player info entries of the npcs shown to a player and removes them again after {@link Constants#NPC_PLAYER_INFO_REMOVE_DELAY}.
+ * The client needs the entry to spawn the npc with its skin, but older versions would show it in the tab list. All entries added to a player
+ * during a tick are sent with one packet (see {@link PacketQueue}), all entries that are due in a tick are removed with one packet. This is only
+ * accessed from the main thread.
+ * <p>
+ * Created by CrystallDEV on 18/10/2026
+ */
+public class PlayerInfoEntries {
+
+  private long currentTick = 0;
+  // player / npc uuid / tick the entry gets removed in
+  private final Map<UUID, Object2LongMap<UUID>> pendingRemovals = new HashMap<>();
+
+  /**
+   * Adds the player info entry of the npc for the player and schedules its removal
+   *
+   * @param player the player the npc is shown to
+   * @param npc the npc
+   */
+  public void add(Player player, BasePlayerNPC npc) {
+    PacketManager.sendPlayerInfoAddPacket(player, npc);
+    pendingRemovals.computeIfAbsent(player.getUniqueId(), id -> new Object2LongOpenHashMap<>())
+      .put(npc.getUuid(), currentTick + Constants.NPC_PLAYER_INFO_REMOVE_DELAY);
+  }
+
+  /**
+   * Forgets all entries of the player, e.g. because the player left the server
+   *
+   * @param uuid the uuid of the player
+   */
+  public void remove(UUID uuid) {
+    pendingRemovals.remove(uuid);
+  }
+
+  /**
+   * Removes all entries that are due with one packet per player. Has to be called once per tick.
+   */
+  public void flush() {
+    currentTick++;
+    Iterator<Map.Entry<UUID, Object2LongMap<UUID>>> players = pendingRemovals.entrySet().iterator();
+    while (players.hasNext()) {
+      Map.Entry<UUID, Object2LongMap<UUID>> entry = players.next();
+      List<UUID> due = new ArrayList<>();
+      Iterator<Object2LongMap.Entry<UUID>> entries = entry.getValue().object2LongEntrySet().iterator();
+      while (entries.hasNext()) {
+        Object2LongMap.Entry<UUID> removal = entries.next();
+        if (removal.getLongValue() <= currentTick) {
+          due.add(removal.getKey());
+          entries.remove();
+        }
+      }
+      if (entry.getValue().isEmpty()) {
+        players.remove();
+      }
+      Player player = Bukkit.getPlayer(entry.getKey());
+      if (!due.isEmpty() && player != null) {
+        PacketManager.sendPlayerInfoRemovePacket(player, due);
+      }
+    }
+  }
+
+}
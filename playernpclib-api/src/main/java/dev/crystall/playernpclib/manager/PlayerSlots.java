@@ -0,0 +1,113 @@
+package dev.crystall.playernpclib.manager;
+
+import dev.crystall.playernpclib.api.base.BasePlayerNPC;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import org.bukkit.entity.Player;
+
+/**
+ * Gives every online player a small int slot that is reused after the player left. Npcs store their viewers as a bitset of these slots, and
+ * the slots keep the reverse index of the npcs shown to each player, so that quitting or changing worlds only touches the npcs of that player.
+ * <p>
+ * Slots are allocated and released on the main thread, {@link #getSlot(UUID)} can be called from any thread.
+ * <p>
+ * Created by CrystallDEV on 18/10/2026
+ */
+public class PlayerSlots {
+
+  private final Map<UUID, Integer> slotsByUuid = new ConcurrentHashMap<>();
+  private final BitSet usedSlots = new BitSet();
+  private final List<Player> players = new ArrayList<>();
+  // slot / npcs shown to the player of that slot
+  private final List<Set<BasePlayerNPC>> shownNPCs = new ArrayList<>();
+
+  /**
+   * Returns the slot of the player and allocates the lowest free one if it has none yet
+   *
+   * @param player the player
+   * @return the slot of the player
+   */
+  public int allocate(Player player) {
+    Integer slot = slotsByUuid.get(player.getUniqueId());
+    if (slot != null) {
+      return slot;
+    }
+    int newSlot = usedSlots.nextClearBit(0);
+    usedSlots.set(newSlot);
+    while (players.size() <= newSlot) {
+      players.add(null);
+      shownNPCs.add(new ReferenceOpenHashSet<>());
+    }
+    players.set(newSlot, player);
+    slotsByUuid.put(player.getUniqueId(), newSlot);
+    return newSlot;
+  }
+
+  /**
+   * Frees the slot of the player. The npcs shown to the player have to be removed before.
+   *
+   * @param player the player that left
+   */
+  public void release(Player player) {
+    Integer slot = slotsByUuid.remove(player.getUniqueId());
+    if (slot == null) {
+      return;
+    }
+    usedSlots.clear(slot);
+    players.set(slot, null);
+    shownNPCs.get(slot).clear();
+  }
+
+  /**
+   * @param uuid the uuid of the player
+   * @return the slot of the player or -1 if it has none
+   */
+  public int getSlot(UUID uuid) {
+    Integer slot = slotsByUuid.get(uuid);
+    return slot == null ? -1 : slot;
+  }
+
+  /**
+   * @param slot the slot
+   * @return the player of the slot or null if the slot is free
+   */
+  public Player getPlayer(int slot) {
+    return slot < players.size() ? players.get(slot) : null;
+  }
+
+  /**
+   * @param player the player
+   * @return a copy of the npcs currently shown to the player
+   */
+  public List<BasePlayerNPC> getShownNPCs(Player player) {
+    int slot = getSlot(player.getUniqueId());
+    if (slot == -1) {
+      return Collections.emptyList();
+    }
+    return new ArrayList<>(shownNPCs.get(slot));
+  }
+
+  /**
+   * Updates the reverse index, called by the npc when it gets shown to the player of the slot
+   */
+  public void addShown(int slot, BasePlayerNPC npc) {
+    shownNPCs.get(slot).add(npc);
+  }
+
+  /**
+   * Updates the reverse index, called by the npc when it gets hidden from the player of the slot
+   */
+  public void removeShown(int slot, BasePlayerNPC npc) {
+    if (slot < shownNPCs.size()) {
+      shownNPCs.get(slot).remove(npc);
+    }
+  }
+
+}
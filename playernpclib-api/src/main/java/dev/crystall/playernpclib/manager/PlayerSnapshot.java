@@ -0,0 +1,204 @@
+package dev.crystall.playernpclib.manager;
+
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+/**
+ * Positions of all online players, captured once at the start of the npc tick. The values are stored in primitive arrays with the players of
+ * every world next to each other, so that the npc computations can run over plain arrays instead of fetching (and cloning) the location of
+ * every player for every npc.
+ * <p>
+ * Created by CrystallDEV on 18/10/2026
+ */
+public class PlayerSnapshot {
+
+  private final Location scratch = new Location(null, 0, 0, 0);
+
+  // player / index of the player in the arrays
+  private final Reference2IntOpenHashMap<Player> indices = new Reference2IntOpenHashMap<>();
+
+  private Player[] players = new Player[16];
+  private double[] x = new double[16];
+  private double[] y = new double[16];
+  private double[] z = new double[16];
+  private int[] worldIndex = new int[16];
+  private int size = 0;
+
+  private World[] worlds = new World[4];
+  // Index range [start, end) of the players of every world
+  private int[] worldStart = new int[4];
+  private int[] worldEnd = new int[4];
+  private int worldCount = 0;
+
+  /**
+   * Captures the current positions of all online players
+   */
+  public void capture() {
+    int previousSize = size;
+    int previousWorldCount = worldCount;
+    size = 0;
+    worldCount = 0;
+    indices.clear();
+    indices.defaultReturnValue(-1);
+    for (World world : Bukkit.getWorlds()) {
+      List<Player> worldPlayers = world.getPlayers();
+      if (worldPlayers.isEmpty()) {
+        continue;
+      }
+      ensureWorldCapacity(worldCount + 1);
+      ensureCapacity(size + worldPlayers.size());
+      worlds[worldCount] = world;
+      worldStart[worldCount] = size;
+      for (Player player : worldPlayers) {
+        player.getLocation(scratch);
+        players[size] = player;
+        x[size] = scratch.getX();
+        y[size] = scratch.getY();
+        z[size] = scratch.getZ();
+        worldIndex[size] = worldCount;
+        indices.put(player, size);
+        size++;
+      }
+      worldEnd[worldCount] = size;
+      worldCount++;
+    }
+    // Don't keep references to players that left or worlds that got unloaded
+    if (previousSize > size) {
+      Arrays.fill(players, size, previousSize, null);
+    }
+    if (previousWorldCount > worldCount) {
+      Arrays.fill(worlds, worldCount, previousWorldCount, null);
+    }
+    scratch.setWorld(null);
+  }
+
+  /**
+   * @param world the world
+   * @return the index of the world in this snapshot or -1 if there were no players in it
+   */
+  public int getWorldIndex(World world) {
+    for (int i = 0; i < worldCount; i++) {
+      if (worlds[i] == world) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Finds the closest player within the radius that matches the filter
+   *
+   * @param world the index of the world to search in
+   * @param px the x coordinate to search from
+   * @param py the y coordinate to search from
+   * @param pz the z coordinate to search from
+   * @param radius the maximum distance
+   * @param filter only players whose index matches the filter are considered
+   * @return the index of the closest player or -1 if there is none
+   */
+  public int findClosest(int world, double px, double py, double pz, double radius, IntPredicate filter) {
+    if (world < 0 || world >= worldCount) {
+      return -1;
+    }
+    int closest = -1;
+    double shortestDistance = radius * radius;
+    for (int i = worldStart[world]; i < worldEnd[world]; i++) {
+      double dx = x[i] - px;
+      double dy = y[i] - py;
+      double dz = z[i] - pz;
+      double distance = dx * dx + dy * dy + dz * dz;
+      if (distance <= shortestDistance && filter.test(i)) {
+        closest = i;
+        shortestDistance = distance;
+      }
+    }
+    return closest;
+  }
+
+  /**
+   * Calls the consumer with the index of every player within the radius
+   *
+   * @param world the index of the world to search in
+   * @param px the x coordinate to search from
+   * @param py the y coordinate to search from
+   * @param pz the z coordinate to search from
+   * @param radius the maximum distance
+   * @param consumer gets called with the index of every player in range
+   */
+  public void forEachInRange(int world, double px, double py, double pz, double radius, IntConsumer consumer) {
+    if (world < 0 || world >= worldCount) {
+      return;
+    }
+    double radiusSquared = radius * radius;
+    for (int i = worldStart[world]; i < worldEnd[world]; i++) {
+      double dx = x[i] - px;
+      double dy = y[i] - py;
+      double dz = z[i] - pz;
+      if (dx * dx + dy * dy + dz * dz <= radiusSquared) {
+        consumer.accept(i);
+      }
+    }
+  }
+
+  /**
+   * @param player the player
+   * @return the index of the player in this snapshot or -1 if the player was not online when it was captured
+   */
+  public int indexOf(Player player) {
+    return indices.getInt(player);
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public Player getPlayer(int index) {
+    return players[index];
+  }
+
+  public World getWorld(int index) {
+    return worlds[worldIndex[index]];
+  }
+
+  public double getX(int index) {
+    return x[index];
+  }
+
+  public double getY(int index) {
+    return y[index];
+  }
+
+  public double getZ(int index) {
+    return z[index];
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (capacity <= players.length) {
+      return;
+    }
+    int newCapacity = Math.max(capacity, players.length * 2);
+    players = Arrays.copyOf(players, newCapacity);
+    x = Arrays.copyOf(x, newCapacity);
+    y = Arrays.copyOf(y, newCapacity);
+    z = Arrays.copyOf(z, newCapacity);
+    worldIndex = Arrays.copyOf(worldIndex, newCapacity);
+  }
+
+  private void ensureWorldCapacity(int capacity) {
+    if (capacity <= worlds.length) {
+      return;
+    }
+    int newCapacity = Math.max(capacity, worlds.length * 2);
+    worlds = Arrays.copyOf(worlds, newCapacity);
+    worldStart = Arrays.copyOf(worldStart, newCapacity);
+    worldEnd = Arrays.copyOf(worldEnd, newCapacity);
+  }
+
+}
@@ -0,0 +1,308 @@
+package dev.crystall.playernpclib.manager;
+
+import dev.crystall.playernpclib.api.base.BasePlayerNPC;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import lombok.Getter;
+import lombok.Setter;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.util.BoundingBox;
+
+/**
+ * Buckets all registered npcs by world and grid cell, so that lookups only have to touch the npcs close to a position instead of every npc on
+ * the server. Cells are squares on the x/z plane with a configurable edge length. This is only accessed from the main thread.
+ * <p>
+ * Created by CrystallDEV on 18/10/2026
+ */
+public class SpatialIndex {
+
+  /**
+   * The edge length of a cell in blocks
+   */
+  @Getter
+  private final int cellSize;
+
+  // world / cell key / npcs in that cell
+  private final Map<UUID, Long2ObjectMap<Set<BasePlayerNPC>>> cellsByWorld = new HashMap<>();
+  // The cell every indexed npc is currently stored in
+  private final Map<BasePlayerNPC, Cell> positions = new HashMap<>();
+
+  /**
+   * Gets notified whenever an npc enters, leaves or moves between cells
+   */
+  @Setter
+  private CellListener cellListener;
+
+  public SpatialIndex(int cellSize) {
+    if (cellSize <= 0) {
+      throw new IllegalArgumentException("cellSize has to be positive");
+    }
+    this.cellSize = cellSize;
+  }
+
+  /**
+   * Adds the npc to the cell of its current location
+   *
+   * @param npc the npc to index
+   */
+  public void add(BasePlayerNPC npc) {
+    if (positions.containsKey(npc)) {
+      update(npc);
+      return;
+    }
+    Cell position = getCell(npc.getLocation());
+    if (position != null) {
+      insert(npc, position);
+      notifyListener(npc, null, position);
+    }
+  }
+
+  /**
+   * Removes the npc from the index
+   *
+   * @param npc the npc to remove
+   */
+  public void remove(BasePlayerNPC npc) {
+    Cell position = positions.remove(npc);
+    if (position != null) {
+      removeFromCell(npc, position);
+      notifyListener(npc, position, null);
+    }
+  }
+
+  /**
+   * Moves the npc to the cell of its current location. Npcs that are not indexed are ignored.
+   *
+   * @param npc the npc that changed its location
+   */
+  public void update(BasePlayerNPC npc) {
+    Cell oldPosition = positions.get(npc);
+    if (oldPosition == null) {
+      return;
+    }
+    Cell newPosition = getCell(npc.getLocation());
+    if (oldPosition.equals(newPosition)) {
+      return;
+    }
+    removeFromCell(npc, oldPosition);
+    positions.remove(npc);
+    if (newPosition != null) {
+      insert(npc, newPosition);
+    }
+    notifyListener(npc, oldPosition, newPosition);
+  }
+
+  public boolean contains(BasePlayerNPC npc) {
+    return positions.containsKey(npc);
+  }
+
+  /**
+   * Collects all npcs within the given radius of the center
+   *
+   * @param center the center of the search
+   * @param radius the radius in blocks
+   * @return all npcs within the radius
+   */
+  public List<BasePlayerNPC> getNearby(Location center, double radius) {
+    List<BasePlayerNPC> result = new ArrayList<>();
+    if (center.getWorld() == null) {
+      return result;
+    }
+    forEachNearby(center.getWorld(), center.getX(), center.getY(), center.getZ(), radius, result::add);
+    return result;
+  }
+
+  /**
+   * Calls the consumer for every npc within the given radius of the center
+   *
+   * @param world the world to search in
+   * @param x the x coordinate of the center
+   * @param y the y coordinate of the center
+   * @param z the z coordinate of the center
+   * @param radius the radius in blocks
+   * @param consumer gets called with every npc within the radius
+   */
+  public void forEachNearby(World world, double x, double y, double z, double radius, Consumer<BasePlayerNPC> consumer) {
+    double radiusSquared = radius * radius;
+    forEachCandidate(world, x - radius, z - radius, x + radius, z + radius, npc -> {
+      Location location = npc.getLocation();
+      double dx = location.getX() - x;
+      double dy = location.getY() - y;
+      double dz = location.getZ() - z;
+      if (dx * dx + dy * dy + dz * dz <= radiusSquared) {
+        consumer.accept(npc);
+      }
+    });
+  }
+
+  /**
+   * Collects all npcs inside the given box
+   *
+   * @param world the world to search in
+   * @param box the box to search in
+   * @return all npcs inside the box
+   */
+  public List<BasePlayerNPC> getInBox(World world, BoundingBox box) {
+    List<BasePlayerNPC> result = new ArrayList<>();
+    forEachCandidate(world, box.getMinX(), box.getMinZ(), box.getMaxX(), box.getMaxZ(), npc -> {
+      Location location = npc.getLocation();
+      if (box.contains(location.getX(), location.getY(), location.getZ())) {
+        result.add(npc);
+      }
+    });
+    return result;
+  }
+
+  /**
+   * Collects all npcs inside the given chunk
+   *
+   * @param world the world of the chunk
+   * @param chunkX the chunk x coordinate
+   * @param chunkZ the chunk z coordinate
+   * @return all npcs inside the chunk
+   */
+  public List<BasePlayerNPC> getInChunk(World world, int chunkX, int chunkZ) {
+    List<BasePlayerNPC> result = new ArrayList<>();
+    forEachCandidate(world, chunkX << 4, chunkZ << 4, (chunkX << 4) + 15, (chunkZ << 4) + 15, npc -> {
+      Location location = npc.getLocation();
+      if (location.getBlockX() >> 4 == chunkX && location.getBlockZ() >> 4 == chunkZ) {
+        result.add(npc);
+      }
+    });
+    return result;
+  }
+
+  /**
+   * Returns the npcs of a single cell
+   *
+   * @param world the world of the cell
+   * @param cellX the cell x coordinate
+   * @param cellZ the cell z coordinate
+   * @return an unmodifiable view on the npcs of the cell
+   */
+  public Set<BasePlayerNPC> getInCell(World world, int cellX, int cellZ) {
+    return getInCell(new Cell(world.getUID(), cellX, cellZ));
+  }
+
+  /**
+   * Returns the npcs of a single cell
+   *
+   * @param cell the cell
+   * @return an unmodifiable view on the npcs of the cell
+   */
+  public Set<BasePlayerNPC> getInCell(Cell cell) {
+    Long2ObjectMap<Set<BasePlayerNPC>> cells = cellsByWorld.get(cell.worldId());
+    if (cells == null) {
+      return Collections.emptySet();
+    }
+    Set<BasePlayerNPC> npcs = cells.get(cell.key());
+    return npcs == null ? Collections.emptySet() : Collections.unmodifiableSet(npcs);
+  }
+
+  /**
+   * Returns the cell the given location is in
+   *
+   * @param location the location
+   * @return the cell or null if the location has no world
+   */
+  public Cell getCell(Location location) {
+    if (location == null || location.getWorld() == null) {
+      return null;
+    }
+    return new Cell(location.getWorld().getUID(), toCell(location.getX()), toCell(location.getZ()));
+  }
+
+  public int toCell(double coordinate) {
+    return Math.floorDiv((int) Math.floor(coordinate), cellSize);
+  }
+
+  public static long toKey(int cellX, int cellZ) {
+    return ((long) cellX << 32) | (cellZ & 0xFFFFFFFFL);
+  }
+
+  private void forEachCandidate(World world, double minX, double minZ, double maxX, double maxZ, Consumer<BasePlayerNPC> consumer) {
+    Long2ObjectMap<Set<BasePlayerNPC>> cells = cellsByWorld.get(world.getUID());
+    if (cells == null) {
+      return;
+    }
+    int minCellX = toCell(minX);
+    int minCellZ = toCell(minZ);
+    int maxCellX = toCell(maxX);
+    int maxCellZ = toCell(maxZ);
+    for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+      for (int cellZ = minCellZ; cellZ <= maxCellZ; cellZ++) {
+        Set<BasePlayerNPC> npcs = cells.get(toKey(cellX, cellZ));
+        if (npcs != null) {
+          npcs.forEach(consumer);
+        }
+      }
+    }
+  }
+
+  private void insert(BasePlayerNPC npc, Cell position) {
+    positions.put(npc, position);
+    Long2ObjectMap<Set<BasePlayerNPC>> cells = cellsByWorld.computeIfAbsent(position.worldId(), id -> new Long2ObjectOpenHashMap<>());
+    Set<BasePlayerNPC> npcs = cells.get(position.key());
+    if (npcs == null) {
+      npcs = new HashSet<>();
+      cells.put(position.key(), npcs);
+    }
+    npcs.add(npc);
+  }
+
+  private void removeFromCell(BasePlayerNPC npc, Cell position) {
+    Long2ObjectMap<Set<BasePlayerNPC>> cells = cellsByWorld.get(position.worldId());
+    if (cells == null) {
+      return;
+    }
+    Set<BasePlayerNPC> npcs = cells.get(position.key());
+    if (npcs != null && npcs.remove(npc) && npcs.isEmpty()) {
+      cells.remove(position.key());
+    }
+  }
+
+  private void notifyListener(BasePlayerNPC npc, Cell from, Cell to) {
+    if (cellListener != null) {
+      cellListener.onCellChange(npc, from, to);
+    }
+  }
+
+  /**
+   * A single cell of the index
+   *
+   * @param worldId the world the cell is in
+   * @param x the cell x coordinate
+   * @param z the cell z coordinate
+   */
+  public record Cell(UUID worldId, int x, int z) {
+
+    public long key() {
+      return toKey(x, z);
+    }
+
+  }
+
+  public interface CellListener {
+
+    /**
+     * Called after an npc changed its cell
+     *
+     * @param npc the npc
+     * @param from the previous cell or null if the npc was just added
+     * @param to the new cell or null if the npc was removed
+     */
+    void onCellChange(BasePlayerNPC npc, Cell from, Cell to);
+
+  }
+
+}
@@ -0,0 +1,77 @@
+package dev.crystall.playernpclib.manager;
+
+import dev.crystall.playernpclib.Constants;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+/**
+ * Tracks which npc names every client already has in the {@link Constants#NPC_TEAM_NAME npc team}. Names of npcs that are shown to a player are
+ * collected during the tick and added with a single team packet at the end of it. Names the client already knows are not sent again. This is
+ * only accessed from the main thread.
+ * <p>
+ * Created by CrystallDEV on 18/10/2026
+ */
+public class TeamMembers {
+
+  // player / npc names the client has in the team
+  private final Map<UUID, Set<String>> knownNames = new HashMap<>();
+  // player / npc names that are added at the end of the tick
+  private final Map<UUID, List<String>> pendingNames = new HashMap<>();
+
+  /**
+   * Adds the npc name to the team of the player at the end of the tick, unless the client already has it
+   *
+   * @param player the player the npc is shown to
+   * @param name the internal name of the npc
+   */
+  public void add(Player player, String name) {
+    if (knownNames.computeIfAbsent(player.getUniqueId(), id -> new HashSet<>()).add(name)) {
+      pendingNames.computeIfAbsent(player.getUniqueId(), id -> new ArrayList<>()).add(name);
+    }
+  }
+
+  /**
+   * Forgets all names of the player, has to be called whenever the client gets a new (empty) team
+   *
+   * @param uuid the uuid of the player
+   */
+  public void reset(UUID uuid) {
+    knownNames.remove(uuid);
+    pendingNames.remove(uuid);
+  }
+
+  /**
+   * Forgets the name for all players, e.g. because the npc got removed. The clients keep the name in their team, which does no harm.
+   *
+   * @param name the internal name of the npc
+   */
+  public void remove(String name) {
+    for (Set<String> names : knownNames.values()) {
+      names.remove(name);
+    }
+  }
+
+  /**
+   * Sends one team packet with all names collected during this tick to every player
+   */
+  public void flush() {
+    if (pendingNames.isEmpty()) {
+      return;
+    }
+    for (Map.Entry<UUID, List<String>> entry : pendingNames.entrySet()) {
+      Player player = Bukkit.getPlayer(entry.getKey());
+      if (player != null) {
+        PacketManager.sendScoreBoardTeamPacket(player, entry.getValue());
+      }
+    }
+    pendingNames.clear();
+  }
+
+}
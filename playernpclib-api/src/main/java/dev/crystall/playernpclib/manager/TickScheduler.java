@@ -0,0 +1,227 @@
+package dev.crystall.playernpclib.manager;
+
+import com.google.common.base.Preconditions;
+import dev.crystall.playernpclib.Constants;
+import dev.crystall.playernpclib.api.base.BasePlayerNPC;
+import dev.crystall.playernpclib.api.base.MovablePlayerNPC;
+import it.unimi.dsi.fastutil.HashCommon;
+import it.unimi.dsi.fastutil.objects.Reference2LongOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceLinkedOpenHashSet;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Spreads the per tick work of the npcs (looking at players, syncing movement) over multiple ticks. Every npc gets a hash based slot and is
+ * only updated every few ticks, depending on the update period of its class. Npcs close to a player are updated every tick. The work of a
+ * single tick is limited by a time budget, npcs that did not fit into it are updated first in the next tick.
+ * <p>
+ * Npcs that are not shown to anyone are idle. Idle static npcs are not scheduled at all, idle movable npcs only sync their location at
+ * {@link Constants#NPC_IDLE_UPDATE_PERIOD}.
+ * <p>
+ * Created by CrystallDEV on 18/10/2026
+ */
+public class TickScheduler implements Runnable {
+
+  public static final int MAX_UPDATE_PERIOD = 100;
+  // Has to be a power of two and larger than the max update period
+  private static final int WHEEL_SIZE = 128;
+
+  private final EntityManager entityManager;
+  private final SpatialIndex spatialIndex;
+
+  private final Set<BasePlayerNPC> registered = new ReferenceOpenHashSet<>();
+  // Buckets of npcs by the tick they are due in. Entries are only valid if they match the due tick of the npc
+  private final List<List<BasePlayerNPC>> wheel = new ArrayList<>(WHEEL_SIZE);
+  private final Reference2LongOpenHashMap<BasePlayerNPC> dueTicks = new Reference2LongOpenHashMap<>();
+  // Work that did not fit into the budget of the last tick
+  private final Set<BasePlayerNPC> deferred = new ReferenceLinkedOpenHashSet<>();
+
+  // class / update period in ticks
+  private final Map<Class<?>, Integer> updatePeriods = new HashMap<>();
+  private final Map<Class<?>, Integer> resolvedUpdatePeriods = new HashMap<>();
+
+  /**
+   * The maximum time in nanoseconds that can be spent on npc updates per tick
+   */
+  @Getter
+  @Setter
+  private long tickBudgetNanos = Constants.NPC_TICK_BUDGET_NANOS;
+
+  @Getter
+  private long currentTick = 0;
+
+  /**
+   * The player positions of the current tick, all npc updates of a tick read from this
+   */
+  @Getter
+  private final PlayerSnapshot playerSnapshot = new PlayerSnapshot();
+
+  public TickScheduler(EntityManager entityManager, SpatialIndex spatialIndex) {
+    this.entityManager = entityManager;
+    this.spatialIndex = spatialIndex;
+    this.dueTicks.defaultReturnValue(-1);
+    for (int i = 0; i < WHEEL_SIZE; i++) {
+      wheel.add(new ArrayList<>());
+    }
+    updatePeriods.put(BasePlayerNPC.class, Constants.NPC_DEFAULT_UPDATE_PERIOD);
+    updatePeriods.put(MovablePlayerNPC.class, Constants.NPC_MOVABLE_UPDATE_PERIOD);
+  }
+
+  /**
+   * Sets how often npcs of the given class (and its subclasses) are updated while no player is close to them
+   *
+   * @param type the npc class
+   * @param period the update period in ticks
+   */
+  public void setUpdatePeriod(Class<? extends BasePlayerNPC> type, int period) {
+    Preconditions.checkNotNull(type, "type cannot be NULL.");
+    Preconditions.checkArgument(period > 0 && period <= MAX_UPDATE_PERIOD, "period has to be between 1 and " + MAX_UPDATE_PERIOD);
+    updatePeriods.put(type, period);
+    resolvedUpdatePeriods.clear();
+  }
+
+  /**
+   * Resolves the update period of the npc by its class or the closest superclass that has one set
+   *
+   * @param npc the npc
+   * @return the update period in ticks
+   */
+  public int getUpdatePeriod(BasePlayerNPC npc) {
+    return resolvedUpdatePeriods.computeIfAbsent(npc.getClass(), type -> {
+      Class<?> current = type;
+      while (current != null && !updatePeriods.containsKey(current)) {
+        current = current.getSuperclass();
+      }
+      return current == null ? Constants.NPC_DEFAULT_UPDATE_PERIOD : updatePeriods.get(current);
+    });
+  }
+
+  public void add(BasePlayerNPC npc) {
+    registered.add(npc);
+    if (isIdle(npc) && !(npc instanceof MovablePlayerNPC)) {
+      return;
+    }
+    int period = getUpdatePeriod(npc);
+    // Stagger npcs of the same class over all ticks of their period
+    int slot = Math.floorMod(HashCommon.mix(npc.getEntityId()), period);
+    schedule(npc, currentTick + 1 + slot);
+  }
+
+  public void remove(BasePlayerNPC npc) {
+    registered.remove(npc);
+    dueTicks.removeLong(npc);
+    deferred.remove(npc);
+  }
+
+  /**
+   * Called when an npc gets its first viewer or loses its last one. Npcs that become idle are dropped from the schedule (static npcs) or
+   * slowed down on their next update (movable npcs), npcs that become active are scheduled again.
+   *
+   * @param npc the npc whose viewers changed
+   */
+  public void updateViewers(BasePlayerNPC npc) {
+    if (!registered.contains(npc)) {
+      return;
+    }
+    if (isIdle(npc)) {
+      if (!(npc instanceof MovablePlayerNPC)) {
+        dueTicks.removeLong(npc);
+        deferred.remove(npc);
+      }
+    } else if (!dueTicks.containsKey(npc) || dueTicks.getLong(npc) - currentTick > getUpdatePeriod(npc)) {
+      add(npc);
+    }
+  }
+
+  @Override
+  public void run() {
+    long start = System.nanoTime();
+    currentTick++;
+    playerSnapshot.capture();
+
+    Set<BasePlayerNPC> nearPlayers = collectNPCsNearPlayers();
+    List<BasePlayerNPC> pending = new ArrayList<>(deferred);
+    deferred.clear();
+    for (BasePlayerNPC npc : nearPlayers) {
+      // Idle npcs keep their slow schedule, even when a player is close
+      if (!isIdle(npc)) {
+        pending.add(npc);
+      }
+    }
+    List<BasePlayerNPC> bucket = wheel.get(bucketIndex(currentTick));
+    wheel.set(bucketIndex(currentTick), new ArrayList<>());
+    for (BasePlayerNPC npc : bucket) {
+      if (dueTicks.getLong(npc) == currentTick) {
+        pending.add(npc);
+      }
+    }
+
+    Set<BasePlayerNPC> processed = new ReferenceOpenHashSet<>();
+    for (int i = 0; i < pending.size(); i++) {
+      BasePlayerNPC npc = pending.get(i);
+      if (!registered.contains(npc) || processed.contains(npc)) {
+        continue;
+      }
+      if (!processed.isEmpty() && System.nanoTime() - start > tickBudgetNanos) {
+        // Out of time, continue with the remaining npcs in the next tick
+        for (int j = i; j < pending.size(); j++) {
+          if (registered.contains(pending.get(j)) && !processed.contains(pending.get(j))) {
+            deferred.add(pending.get(j));
+          }
+        }
+        break;
+      }
+      processed.add(npc);
+
+      boolean isNearPlayer = nearPlayers.contains(npc);
+      boolean isIdle = isIdle(npc);
+      // Static npcs only have to look at players, so there is nothing to do if no player is around
+      if (npc instanceof MovablePlayerNPC || (isNearPlayer && !isIdle)) {
+        entityManager.tickNPC(npc);
+      }
+      long dueTick = dueTicks.getLong(npc);
+      if (dueTick != -1 && dueTick <= currentTick) {
+        reschedule(npc, isNearPlayer, isIdle);
+      }
+    }
+  }
+
+  private void reschedule(BasePlayerNPC npc, boolean isNearPlayer, boolean isIdle) {
+    if (!isIdle) {
+      schedule(npc, currentTick + (isNearPlayer ? 1 : getUpdatePeriod(npc)));
+    } else if (npc instanceof MovablePlayerNPC) {
+      schedule(npc, currentTick + Constants.NPC_IDLE_UPDATE_PERIOD);
+    } else {
+      dueTicks.removeLong(npc);
+    }
+  }
+
+  private static boolean isIdle(BasePlayerNPC npc) {
+    return !npc.hasViewers();
+  }
+
+  private Set<BasePlayerNPC> collectNPCsNearPlayers() {
+    Set<BasePlayerNPC> npcs = new ReferenceLinkedOpenHashSet<>();
+    for (int i = 0; i < playerSnapshot.size(); i++) {
+      spatialIndex.forEachNearby(playerSnapshot.getWorld(i), playerSnapshot.getX(i), playerSnapshot.getY(i), playerSnapshot.getZ(i),
+        Constants.NPC_NEAR_PLAYER_RANGE, npcs::add);
+    }
+    return npcs;
+  }
+
+  private void schedule(BasePlayerNPC npc, long tick) {
+    dueTicks.put(npc, tick);
+    wheel.get(bucketIndex(tick)).add(npc);
+  }
+
+  private static int bucketIndex(long tick) {
+    return (int) (tick & (WHEEL_SIZE - 1));
+  }
+
+}
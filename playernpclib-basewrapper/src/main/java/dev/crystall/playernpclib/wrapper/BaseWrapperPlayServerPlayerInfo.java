@@ -3,6 +3,7 @@ package dev.crystall.playernpclib.wrapper;
 import com.comphenix.protocol.wrappers.EnumWrappers.PlayerInfoAction;
 import com.comphenix.protocol.wrappers.PlayerInfoData;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Created by CrystallDEV on 18/08/2021
@@ -13,6 +14,15 @@ public interface BaseWrapperPlayServerPlayerInfo extends IBaseWrapper{
 
   void setAction(PlayerInfoAction value);
 
+  Set<PlayerInfoAction> getActions();
+
+  /**
+   * Set the actions of this packet. Versions before 1.19.3 only support a single action per packet, only the first one is used there.
+   *
+   * @param value - new value.
+   */
+  void setActions(Set<PlayerInfoAction> value);
+
   List<PlayerInfoData> getData();
 
   void setData(List<PlayerInfoData> value);
@@ -0,0 +1,18 @@
+package dev.crystall.playernpclib.wrapper;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Removes players from the player list of the client. Only exists on 1.19.3 and later, older versions use the player info packet with the
+ * REMOVE_PLAYER action.
+ * <p>
+ * Created by CrystallDEV on 18/10/2026
+ */
+public interface BaseWrapperPlayServerPlayerInfoRemove extends IBaseWrapper {
+
+  List<UUID> getPlayers();
+
+  void setPlayers(List<UUID> value);
+
+}
@@ -0,0 +1,87 @@
+package dev.crystall.playernpclib.wrapper;
+
+import com.comphenix.protocol.events.PacketEvent;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+
+/**
+ * Created by CrystallDEV on 18/10/2026
+ */
+public interface BaseWrapperPlayServerRelEntityMove extends IBaseWrapper{
+
+  /**
+   * Retrieve entity ID.
+   *
+   * @return The current EID
+   */
+  int getEntityID();
+
+  /**
+   * Set entity ID.
+   *
+   * @param value - new value.
+   */
+  void setEntityID(int value);
+
+  /**
+   * Retrieve the entity.
+   *
+   * @param world - the current world of the entity.
+   * @return The entity.
+   */
+  Entity getEntity(World world);
+
+  /**
+   * Retrieve the entity.
+   *
+   * @param event - the packet event.
+   * @return The entity.
+   */
+  Entity getEntity(PacketEvent event);
+
+  /**
+   * Retrieve the change in x position, in steps of 1/4096 of a block.
+   *
+   * @return The current dx
+   */
+  short getDx();
+
+  /**
+   * Set the change in x position, in steps of 1/4096 of a block.
+   *
+   * @param value - new value.
+   */
+  void setDx(short value);
+
+  /**
+   * Retrieve the change in y position, in steps of 1/4096 of a block.
+   *
+   * @return The current dy
+   */
+  short getDy();
+
+  /**
+   * Set the change in y position, in steps of 1/4096 of a block.
+   *
+   * @param value - new value.
+   */
+  void setDy(short value);
+
+  /**
+   * Retrieve the change in z position, in steps of 1/4096 of a block.
+   *
+   * @return The current dz
+   */
+  short getDz();
+
+  /**
+   * Set the change in z position, in steps of 1/4096 of a block.
+   *
+   * @param value - new value.
+   */
+  void setDz(short value);
+
+  boolean getOnGround();
+
+  void setOnGround(boolean value);
+}
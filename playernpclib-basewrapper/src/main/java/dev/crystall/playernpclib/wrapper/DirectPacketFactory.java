@@ -0,0 +1,36 @@
+package dev.crystall.playernpclib.wrapper;
+
+import org.bukkit.entity.Player;
+
+/**
+ * Optional fast path that creates vanilla packet objects directly and writes them to the connection of a player, without going through the
+ * structure modifiers and listeners of ProtocolLib. Only used for packets that are sent very often.
+ * <p>
+ * Created by CrystallDEV on 18/10/2026
+ */
+public interface DirectPacketFactory {
+
+  /**
+   * @return a relative move packet, positions in steps of 1/4096 of a block
+   */
+  Object createRelEntityMove(int entityId, short dx, short dy, short dz, boolean onGround);
+
+  /**
+   * @return a relative move and look packet, positions in steps of 1/4096 of a block and angles in steps of 1/256 of a full turn
+   */
+  Object createRelEntityMoveLook(int entityId, short dx, short dy, short dz, byte yaw, byte pitch, boolean onGround);
+
+  /**
+   * @return a look packet, angles in steps of 1/256 of a full turn
+   */
+  Object createEntityLook(int entityId, byte yaw, byte pitch, boolean onGround);
+
+  /**
+   * Writes the vanilla packet to the connection of the player
+   *
+   * @param player the receiver
+   * @param packet the vanilla packet, e.g. the handle of a PacketContainer
+   */
+  void send(Player player, Object packet);
+
+}
@@ -14,5 +14,27 @@ public enum MinecraftVersions {
   v1_19_R2,
   v1_19_R3,
   v1_20_R1,
-  v1_20_R2
+  v1_20_R2;
+
+  /**
+   * @param version the version to compare to
+   * @return true if this version is the same as or newer than the given one
+   */
+  public boolean isAtLeast(MinecraftVersions version) {
+    return compareTo(version) >= 0;
+  }
+
+  /**
+   * @return true if the client of this version understands bundle packets, which are handled in a single tick
+   */
+  public boolean supportsBundlePackets() {
+    return isAtLeast(v1_19_R3);
+  }
+
+  /**
+   * @return true if this version removes players with its own packet and allows multiple actions per player info packet (1.19.3+)
+   */
+  public boolean hasPlayerInfoRemovePacket() {
+    return isAtLeast(v1_19_R2);
+  }
 }
@@ -0,0 +1,105 @@
+package dev.crystall.playernpclib.wrapper;
+
+import com.comphenix.protocol.events.PacketContainer;
+import java.util.List;
+
+import static dev.crystall.playernpclib.wrapper.WrapperFactory.*;
+
+/**
+ * Fallback for versions without a registered {@link WrapperProvider}, creates the wrappers resolved by class name through the
+ * {@link WrapperGenerator}.
+ * <p>
+ * Created by CrystallDEV on 18/10/2026
+ */
+class ReflectiveWrapperProvider implements WrapperProvider {
+
+  private final MinecraftVersions version;
+
+  ReflectiveWrapperProvider(MinecraftVersions version) {
+    this.version = version;
+  }
+
+  @Override
+  public MinecraftVersions getVersion() {
+    return version;
+  }
+
+  @Override
+  public List<Class<? extends IBaseWrapper>> getWrapperClasses() {
+    return List.of();
+  }
+
+  @Override
+  public BaseWrapperPlayClientUseEntity wrapUseEntity(PacketContainer packet) {
+    return new WrapperGenerator<BaseWrapperPlayClientUseEntity>().map(BASE_WRAPPER_PLAY_CLIENT_USE_ENTITY, packet);
+  }
+
+  @Override
+  public BaseWrapperPlayServerAnimation createAnimation() {
+    return new WrapperGenerator<BaseWrapperPlayServerAnimation>().map(BASE_WRAPPER_PLAY_SERVER_ANIMATION);
+  }
+
+  @Override
+  public BaseWrapperPlayServerEntityDestroy createEntityDestroy() {
+    return new WrapperGenerator<BaseWrapperPlayServerEntityDestroy>().map(BASE_WRAPPER_PLAY_SERVER_ENTITY_DESTROY);
+  }
+
+  @Override
+  public BaseWrapperPlayServerEntityEquipment createEntityEquipment() {
+    return new WrapperGenerator<BaseWrapperPlayServerEntityEquipment>().map(BASE_WRAPPER_PLAY_SERVER_ENTITY_EQUIPMENT);
+  }
+
+  @Override
+  public BaseWrapperPlayServerEntityHeadRotation createEntityHeadRotation() {
+    return new WrapperGenerator<BaseWrapperPlayServerEntityHeadRotation>().map(BASE_WRAPPER_PLAY_SERVER_ENTITY_HEAD_ROTATION);
+  }
+
+  @Override
+  public BaseWrapperPlayServerEntityLook createEntityLook() {
+    return new WrapperGenerator<BaseWrapperPlayServerEntityLook>().map(BASE_WRAPPER_PLAY_SERVER_ENTITY_LOOK);
+  }
+
+  @Override
+  public BaseWrapperPlayServerEntityMetadata createEntityMetadata() {
+    return new WrapperGenerator<BaseWrapperPlayServerEntityMetadata>().map(BASE_WRAPPER_PLAY_SERVER_ENTITY_METADATA);
+  }
+
+  @Override
+  public BaseWrapperPlayServerEntityTeleport createEntityTeleport() {
+    return new WrapperGenerator<BaseWrapperPlayServerEntityTeleport>().map(BASE_WRAPPER_PLAY_SERVER_ENTITY_TELEPORT);
+  }
+
+  @Override
+  public BaseWrapperPlayServerNamedEntitySpawn createNamedEntitySpawn() {
+    return new WrapperGenerator<BaseWrapperPlayServerNamedEntitySpawn>().map(BASE_WRAPPER_PLAY_SERVER_NAMED_ENTITY_SPAWN);
+  }
+
+  @Override
+  public BaseWrapperPlayServerPlayerInfo createPlayerInfo() {
+    return new WrapperGenerator<BaseWrapperPlayServerPlayerInfo>().map(BASE_WRAPPER_PLAY_SERVER_PLAYER_INFO);
+  }
+
+  @Override
+  public BaseWrapperPlayServerPlayerInfoRemove createPlayerInfoRemove() {
+    if (BASE_WRAPPER_PLAY_SERVER_PLAYER_INFO_REMOVE == null) {
+      return null;
+    }
+    return new WrapperGenerator<BaseWrapperPlayServerPlayerInfoRemove>().map(BASE_WRAPPER_PLAY_SERVER_PLAYER_INFO_REMOVE);
+  }
+
+  @Override
+  public BaseWrapperPlayServerRelEntityMove createRelEntityMove() {
+    return new WrapperGenerator<BaseWrapperPlayServerRelEntityMove>().map(BASE_WRAPPER_PLAY_SERVER_REL_ENTITY_MOVE);
+  }
+
+  @Override
+  public BaseWrapperPlayServerRelEntityMoveLook createRelEntityMoveLook() {
+    return new WrapperGenerator<BaseWrapperPlayServerRelEntityMoveLook>().map(BASE_WRAPPER_PLAY_SERVER_REL_ENTITY_MOVE_LOOK);
+  }
+
+  @Override
+  public BaseWrapperPlayServerScoreboardTeam createScoreboardTeam() {
+    return new WrapperGenerator<BaseWrapperPlayServerScoreboardTeam>().map(BASE_WRAPPER_PLAY_SERVER_SCOREBOARD_TEAM);
+  }
+
+}
@@ -1,5 +1,8 @@
 package dev.crystall.playernpclib.wrapper;
 
+import java.util.EnumMap;
+import java.util.Map;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -14,31 +17,80 @@ public class WrapperFactory {
   public static Class<? extends BaseWrapperPlayServerEntityDestroy> BASE_WRAPPER_PLAY_SERVER_ENTITY_DESTROY;
   public static Class<? extends BaseWrapperPlayServerEntityEquipment> BASE_WRAPPER_PLAY_SERVER_ENTITY_EQUIPMENT;
   public static Class<? extends BaseWrapperPlayServerEntityHeadRotation> BASE_WRAPPER_PLAY_SERVER_ENTITY_HEAD_ROTATION;
+  public static Class<? extends BaseWrapperPlayServerEntityLook> BASE_WRAPPER_PLAY_SERVER_ENTITY_LOOK;
   public static Class<? extends BaseWrapperPlayServerEntityMetadata> BASE_WRAPPER_PLAY_SERVER_ENTITY_METADATA;
   public static Class<? extends BaseWrapperPlayServerEntityTeleport> BASE_WRAPPER_PLAY_SERVER_ENTITY_TELEPORT;
   public static Class<? extends BaseWrapperPlayServerNamedEntitySpawn> BASE_WRAPPER_PLAY_SERVER_NAMED_ENTITY_SPAWN;
   public static Class<? extends BaseWrapperPlayServerPlayerInfo> BASE_WRAPPER_PLAY_SERVER_PLAYER_INFO;
+  public static Class<? extends BaseWrapperPlayServerPlayerInfoRemove> BASE_WRAPPER_PLAY_SERVER_PLAYER_INFO_REMOVE;
+  public static Class<? extends BaseWrapperPlayServerRelEntityMove> BASE_WRAPPER_PLAY_SERVER_REL_ENTITY_MOVE;
+  public static Class<? extends BaseWrapperPlayServerRelEntityMoveLook> BASE_WRAPPER_PLAY_SERVER_REL_ENTITY_MOVE_LOOK;
   public static Class<? extends BaseWrapperPlayServerScoreboardTeam> BASE_WRAPPER_PLAY_SERVER_SCOREBOARD_TEAM;
 
   private static boolean HAS_ERROR = false;
 
+  // version / provider registered for that version, all other versions use the reflective provider
+  private static final Map<MinecraftVersions, WrapperProvider> PROVIDERS = new EnumMap<>(MinecraftVersions.class);
+
+  /**
+   * Creates the wrappers of the server version
+   */
+  @Getter
+  private static WrapperProvider provider;
+
+  /**
+   * The version of the server the wrappers were created for
+   */
+  @Getter
+  private static MinecraftVersions serverVersion;
+
   private WrapperFactory() {
   }
 
+  /**
+   * Registers a provider that creates the wrappers of its version with plain constructor calls. Has to be called before {@link #init}.
+   *
+   * @param versionProvider the provider
+   */
+  public static void registerProvider(WrapperProvider versionProvider) {
+    PROVIDERS.put(versionProvider.getVersion(), versionProvider);
+  }
+
   public static boolean init(MinecraftVersions minecraftVersions) {
     if (minecraftVersions == null) {
       return false;
     }
+    serverVersion = minecraftVersions;
+    WrapperProvider versionProvider = PROVIDERS.get(minecraftVersions);
+    if (versionProvider != null) {
+      // Direct constructor calls, no class names to resolve
+      for (Class<? extends IBaseWrapper> wrapperClass : versionProvider.getWrapperClasses()) {
+        registerWrapperClass(wrapperClass);
+      }
+      provider = versionProvider;
+      warmUpConstructors();
+      log.info("Loaded wrapper provider for {}", minecraftVersions);
+      return true;
+    }
+
+    provider = new ReflectiveWrapperProvider(minecraftVersions);
     resolvePlayClientUseEntity(minecraftVersions);
     resolvePlayServerAnimation(minecraftVersions);
     resolvePlayServerEntityDestroy(minecraftVersions);
     resolvePlayServerEntityEquipment(minecraftVersions);
     resolvePlayServerEntityHeadRotation(minecraftVersions);
+    resolvePlayServerEntityLook(minecraftVersions);
     resolvePlayServerEntityMetadata(minecraftVersions);
     resolvePlayServerEntityTeleport(minecraftVersions);
     resolvePlayServerNamedEntitySpawn(minecraftVersions);
     resolvePlayServerPlayerInfo(minecraftVersions);
+    if (minecraftVersions.hasPlayerInfoRemovePacket()) {
+      resolvePlayServerPlayerInfoRemove(minecraftVersions);
+    }
+    resolvePlayServerRelEntityMove(minecraftVersions);
+    resolvePlayServerRelEntityMoveLook(minecraftVersions);
     resolvePlayServerScoreboardTeam(minecraftVersions);
+    warmUpConstructors();
     return !HAS_ERROR;
   }
 
@@ -65,6 +117,11 @@ public class WrapperFactory {
       "WrapperPlayServerEntityHeadRotation");
   }
 
+  public static void resolvePlayServerEntityLook(MinecraftVersions minecraftVersions) {
+    BASE_WRAPPER_PLAY_SERVER_ENTITY_LOOK = (Class<? extends BaseWrapperPlayServerEntityLook>) parseWrapperClass(minecraftVersions,
+      "WrapperPlayServerEntityLook");
+  }
+
   public static void resolvePlayServerEntityMetadata(MinecraftVersions minecraftVersions) {
     BASE_WRAPPER_PLAY_SERVER_ENTITY_METADATA = (Class<? extends BaseWrapperPlayServerEntityMetadata>) parseWrapperClass(minecraftVersions,
       "WrapperPlayServerEntityMetadata");
@@ -85,11 +142,78 @@ public class WrapperFactory {
       "WrapperPlayServerPlayerInfo");
   }
 
+  public static void resolvePlayServerPlayerInfoRemove(MinecraftVersions minecraftVersions) {
+    BASE_WRAPPER_PLAY_SERVER_PLAYER_INFO_REMOVE = (Class<? extends BaseWrapperPlayServerPlayerInfoRemove>) parseWrapperClass(minecraftVersions,
+      "WrapperPlayServerPlayerInfoRemove");
+  }
+
+  public static void resolvePlayServerRelEntityMove(MinecraftVersions minecraftVersions) {
+    BASE_WRAPPER_PLAY_SERVER_REL_ENTITY_MOVE = (Class<? extends BaseWrapperPlayServerRelEntityMove>) parseWrapperClass(minecraftVersions,
+      "WrapperPlayServerRelEntityMove");
+  }
+
+  public static void resolvePlayServerRelEntityMoveLook(MinecraftVersions minecraftVersions) {
+    BASE_WRAPPER_PLAY_SERVER_REL_ENTITY_MOVE_LOOK = (Class<? extends BaseWrapperPlayServerRelEntityMoveLook>) parseWrapperClass(minecraftVersions,
+      "WrapperPlayServerRelEntityMoveLook");
+  }
+
   public static void resolvePlayServerScoreboardTeam(MinecraftVersions minecraftVersions) {
     BASE_WRAPPER_PLAY_SERVER_SCOREBOARD_TEAM = (Class<? extends BaseWrapperPlayServerScoreboardTeam>) parseWrapperClass(minecraftVersions,
       "WrapperPlayServerScoreboardTeam");
   }
 
+  private static void registerWrapperClass(Class<? extends IBaseWrapper> wrapperClass) {
+    if (BaseWrapperPlayClientUseEntity.class.isAssignableFrom(wrapperClass)) {
+      BASE_WRAPPER_PLAY_CLIENT_USE_ENTITY = (Class<? extends BaseWrapperPlayClientUseEntity>) wrapperClass;
+    } else if (BaseWrapperPlayServerAnimation.class.isAssignableFrom(wrapperClass)) {
+      BASE_WRAPPER_PLAY_SERVER_ANIMATION = (Class<? extends BaseWrapperPlayServerAnimation>) wrapperClass;
+    } else if (BaseWrapperPlayServerEntityDestroy.class.isAssignableFrom(wrapperClass)) {
+      BASE_WRAPPER_PLAY_SERVER_ENTITY_DESTROY = (Class<? extends BaseWrapperPlayServerEntityDestroy>) wrapperClass;
+    } else if (BaseWrapperPlayServerEntityEquipment.class.isAssignableFrom(wrapperClass)) {
+      BASE_WRAPPER_PLAY_SERVER_ENTITY_EQUIPMENT = (Class<? extends BaseWrapperPlayServerEntityEquipment>) wrapperClass;
+    } else if (BaseWrapperPlayServerEntityHeadRotation.class.isAssignableFrom(wrapperClass)) {
+      BASE_WRAPPER_PLAY_SERVER_ENTITY_HEAD_ROTATION = (Class<? extends BaseWrapperPlayServerEntityHeadRotation>) wrapperClass;
+    } else if (BaseWrapperPlayServerEntityLook.class.isAssignableFrom(wrapperClass)) {
+      BASE_WRAPPER_PLAY_SERVER_ENTITY_LOOK = (Class<? extends BaseWrapperPlayServerEntityLook>) wrapperClass;
+    } else if (BaseWrapperPlayServerEntityMetadata.class.isAssignableFrom(wrapperClass)) {
+      BASE_WRAPPER_PLAY_SERVER_ENTITY_METADATA = (Class<? extends BaseWrapperPlayServerEntityMetadata>) wrapperClass;
+    } else if (BaseWrapperPlayServerEntityTeleport.class.isAssignableFrom(wrapperClass)) {
+      BASE_WRAPPER_PLAY_SERVER_ENTITY_TELEPORT = (Class<? extends BaseWrapperPlayServerEntityTeleport>) wrapperClass;
+    } else if (BaseWrapperPlayServerNamedEntitySpawn.class.isAssignableFrom(wrapperClass)) {
+      BASE_WRAPPER_PLAY_SERVER_NAMED_ENTITY_SPAWN = (Class<? extends BaseWrapperPlayServerNamedEntitySpawn>) wrapperClass;
+    } else if (BaseWrapperPlayServerPlayerInfo.class.isAssignableFrom(wrapperClass)) {
+      BASE_WRAPPER_PLAY_SERVER_PLAYER_INFO = (Class<? extends BaseWrapperPlayServerPlayerInfo>) wrapperClass;
+    } else if (BaseWrapperPlayServerPlayerInfoRemove.class.isAssignableFrom(wrapperClass)) {
+      BASE_WRAPPER_PLAY_SERVER_PLAYER_INFO_REMOVE = (Class<? extends BaseWrapperPlayServerPlayerInfoRemove>) wrapperClass;
+    } else if (BaseWrapperPlayServerRelEntityMove.class.isAssignableFrom(wrapperClass)) {
+      BASE_WRAPPER_PLAY_SERVER_REL_ENTITY_MOVE = (Class<? extends BaseWrapperPlayServerRelEntityMove>) wrapperClass;
+    } else if (BaseWrapperPlayServerRelEntityMoveLook.class.isAssignableFrom(wrapperClass)) {
+      BASE_WRAPPER_PLAY_SERVER_REL_ENTITY_MOVE_LOOK = (Class<? extends BaseWrapperPlayServerRelEntityMoveLook>) wrapperClass;
+    } else if (BaseWrapperPlayServerScoreboardTeam.class.isAssignableFrom(wrapperClass)) {
+      BASE_WRAPPER_PLAY_SERVER_SCOREBOARD_TEAM = (Class<? extends BaseWrapperPlayServerScoreboardTeam>) wrapperClass;
+    }
+  }
+
+  /**
+   * Caches the constructor handles of all resolved wrappers, so creating a wrapper later on is a direct call
+   */
+  private static void warmUpConstructors() {
+    WrapperGenerator.warmUp(BASE_WRAPPER_PLAY_CLIENT_USE_ENTITY);
+    WrapperGenerator.warmUp(BASE_WRAPPER_PLAY_SERVER_ANIMATION);
+    WrapperGenerator.warmUp(BASE_WRAPPER_PLAY_SERVER_ENTITY_DESTROY);
+    WrapperGenerator.warmUp(BASE_WRAPPER_PLAY_SERVER_ENTITY_EQUIPMENT);
+    WrapperGenerator.warmUp(BASE_WRAPPER_PLAY_SERVER_ENTITY_HEAD_ROTATION);
+    WrapperGenerator.warmUp(BASE_WRAPPER_PLAY_SERVER_ENTITY_LOOK);
+    WrapperGenerator.warmUp(BASE_WRAPPER_PLAY_SERVER_ENTITY_METADATA);
+    WrapperGenerator.warmUp(BASE_WRAPPER_PLAY_SERVER_ENTITY_TELEPORT);
+    WrapperGenerator.warmUp(BASE_WRAPPER_PLAY_SERVER_NAMED_ENTITY_SPAWN);
+    WrapperGenerator.warmUp(BASE_WRAPPER_PLAY_SERVER_PLAYER_INFO);
+    WrapperGenerator.warmUp(BASE_WRAPPER_PLAY_SERVER_PLAYER_INFO_REMOVE);
+    WrapperGenerator.warmUp(BASE_WRAPPER_PLAY_SERVER_REL_ENTITY_MOVE);
+    WrapperGenerator.warmUp(BASE_WRAPPER_PLAY_SERVER_REL_ENTITY_MOVE_LOOK);
+    WrapperGenerator.warmUp(BASE_WRAPPER_PLAY_SERVER_SCOREBOARD_TEAM);
+  }
+
   private static Class<?> parseWrapperClass(MinecraftVersions minecraftVersions, String wrapperClassName) {
     Class<?> loadedClass = null;
     String className = "dev.crystall.playernpclib.nms_" + minecraftVersions.name() + ".wrappers." + wrapperClassName;
@@ -1,6 +1,12 @@
 package dev.crystall.playernpclib.wrapper;
 
-import java.lang.reflect.InvocationTargetException;
+import com.comphenix.protocol.events.PacketContainer;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import lombok.NoArgsConstructor;
 import org.bukkit.Bukkit;
 
@@ -10,19 +16,99 @@ import org.bukkit.Bukkit;
 @NoArgsConstructor
 public class WrapperGenerator<T> {
 
+  // wrapper class / constructor handles by their argument types. Lookups happen on the netty threads, so no reflection should happen here
+  private static final Map<Class<?>, ConstructorHandle[]> CONSTRUCTORS = new ConcurrentHashMap<>();
+
   public T map(Class<? extends T> aClass, Object... initargs) {
     try {
-      Class<?>[] types = new Class[initargs.length];
-      int i = 0;
-      for (Object o : initargs) {
-        types[i] = o.getClass();
-        i++;
+      ConstructorHandle constructor = findConstructor(aClass, initargs);
+      if (constructor == null) {
+        Class<?>[] types = new Class[initargs.length];
+        int i = 0;
+        for (Object o : initargs) {
+          types[i] = o.getClass();
+          i++;
+        }
+        constructor = cacheConstructor(aClass, types);
       }
-      return aClass.getDeclaredConstructor(types).newInstance(initargs);
-    } catch (InstantiationException | IllegalAccessException | NoSuchMethodException | InvocationTargetException e) {
+      Object instance = constructor.handle().invokeExact(initargs);
+      return aClass.cast(instance);
+    } catch (Throwable e) {
       Bukkit.getLogger().severe("Unable to map class " + aClass.getSimpleName());
       e.printStackTrace();
     }
     return null;
   }
+
+  /**
+   * Resolves the constructors used by the library for the given wrapper class ahead of time, so the first packets do not have to
+   *
+   * @param aClass the wrapper class
+   */
+  public static void warmUp(Class<?> aClass) {
+    if (aClass == null) {
+      return;
+    }
+    for (Class<?>[] types : new Class<?>[][]{{}, {PacketContainer.class}}) {
+      try {
+        cacheConstructor(aClass, types);
+      } catch (NoSuchMethodException | IllegalAccessException ignored) {
+        // The wrapper does not offer this constructor
+      }
+    }
+  }
+
+  private static ConstructorHandle findConstructor(Class<?> aClass, Object[] initargs) {
+    ConstructorHandle[] constructors = CONSTRUCTORS.get(aClass);
+    if (constructors == null) {
+      return null;
+    }
+    for (ConstructorHandle constructor : constructors) {
+      if (constructor.matches(initargs)) {
+        return constructor;
+      }
+    }
+    return null;
+  }
+
+  private static ConstructorHandle cacheConstructor(Class<?> aClass, Class<?>[] types) throws NoSuchMethodException, IllegalAccessException {
+    MethodHandle handle = MethodHandles.publicLookup().findConstructor(aClass, MethodType.methodType(void.class, types))
+      .asSpreader(Object[].class, types.length)
+      .asType(MethodType.methodType(Object.class, Object[].class));
+    ConstructorHandle constructor = new ConstructorHandle(types, handle);
+    CONSTRUCTORS.merge(aClass, new ConstructorHandle[]{constructor}, (existing, added) -> {
+      for (ConstructorHandle other : existing) {
+        if (Arrays.equals(other.types(), types)) {
+          return existing;
+        }
+      }
+      ConstructorHandle[] merged = Arrays.copyOf(existing, existing.length + 1);
+      merged[existing.length] = constructor;
+      return merged;
+    });
+    return constructor;
+  }
+
+  /**
+   * A constructor of a wrapper class that takes all arguments as one array
+   *
+   * @param types the exact argument types of the constructor
+   * @param handle the handle, typed as (Object[]) -> Object
+   */
+  private record ConstructorHandle(Class<?>[] types, MethodHandle handle) {
+
+    boolean matches(Object[] args) {
+      if (args.length != types.length) {
+        return false;
+      }
+      for (int i = 0; i < args.length; i++) {
+        if (args[i].getClass() != types[i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+  }
+
 }
@@ -0,0 +1,64 @@
+package dev.crystall.playernpclib.wrapper;
+
+import com.comphenix.protocol.events.PacketContainer;
+import java.util.List;
+
+/**
+ * Creates the packet wrappers of a single minecraft version. The version the library is compiled against registers a provider with plain
+ * constructor calls through {@link WrapperFactory#registerProvider(WrapperProvider)}, all other versions are served by a reflective provider.
+ * <p>
+ * Created by CrystallDEV on 18/10/2026
+ */
+public interface WrapperProvider {
+
+  /**
+   * @return the version the wrappers of this provider are made for
+   */
+  MinecraftVersions getVersion();
+
+  /**
+   * @return the wrapper classes of this provider, used to fill the class fields of the {@link WrapperFactory}
+   */
+  List<Class<? extends IBaseWrapper>> getWrapperClasses();
+
+  /**
+   * @return the direct packet path of this version or null if there is none or it could not be resolved
+   */
+  default DirectPacketFactory getDirectPacketFactory() {
+    return null;
+  }
+
+  BaseWrapperPlayClientUseEntity wrapUseEntity(PacketContainer packet);
+
+  BaseWrapperPlayServerAnimation createAnimation();
+
+  BaseWrapperPlayServerEntityDestroy createEntityDestroy();
+
+  BaseWrapperPlayServerEntityEquipment createEntityEquipment();
+
+  BaseWrapperPlayServerEntityHeadRotation createEntityHeadRotation();
+
+  BaseWrapperPlayServerEntityLook createEntityLook();
+
+  BaseWrapperPlayServerEntityMetadata createEntityMetadata();
+
+  BaseWrapperPlayServerEntityTeleport createEntityTeleport();
+
+  BaseWrapperPlayServerNamedEntitySpawn createNamedEntitySpawn();
+
+  BaseWrapperPlayServerPlayerInfo createPlayerInfo();
+
+  /**
+   * @return the player info remove wrapper or null on versions before 1.19.3, see {@link MinecraftVersions#hasPlayerInfoRemovePacket()}
+   */
+  default BaseWrapperPlayServerPlayerInfoRemove createPlayerInfoRemove() {
+    return null;
+  }
+
+  BaseWrapperPlayServerRelEntityMove createRelEntityMove();
+
+  BaseWrapperPlayServerRelEntityMoveLook createRelEntityMoveLook();
+
+  BaseWrapperPlayServerScoreboardTeam createScoreboardTeam();
+
+}
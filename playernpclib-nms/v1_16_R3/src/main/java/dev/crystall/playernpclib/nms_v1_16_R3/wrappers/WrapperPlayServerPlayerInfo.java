@@ -6,7 +6,9 @@ import com.comphenix.protocol.wrappers.EnumWrappers.PlayerInfoAction;
 import com.comphenix.protocol.wrappers.PlayerInfoData;
 import dev.crystall.playernpclib.wrapper.AbstractPacket;
 import dev.crystall.playernpclib.wrapper.BaseWrapperPlayServerPlayerInfo;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 public class WrapperPlayServerPlayerInfo extends AbstractPacket implements BaseWrapperPlayServerPlayerInfo {
 
@@ -29,6 +31,17 @@ public class WrapperPlayServerPlayerInfo extends AbstractPacket implements BaseW
     handle.getPlayerInfoAction().write(0, value);
   }
 
+  @Override
+  public Set<PlayerInfoAction> getActions() {
+    return EnumSet.of(getAction());
+  }
+
+  @Override
+  public void setActions(Set<PlayerInfoAction> value) {
+    // Only a single action per packet on this version
+    setAction(value.iterator().next());
+  }
+
   @Override
   public List<PlayerInfoData> getData() {
     return handle.getPlayerInfoDataLists().read(0);
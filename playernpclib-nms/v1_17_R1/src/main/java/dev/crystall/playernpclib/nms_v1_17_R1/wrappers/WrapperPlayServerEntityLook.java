@@ -0,0 +1,71 @@
+package dev.crystall.playernpclib.nms_v1_17_R1.wrappers;
+
+import com.comphenix.protocol.PacketType;
+import com.comphenix.protocol.events.PacketContainer;
+import com.comphenix.protocol.events.PacketEvent;
+import dev.crystall.playernpclib.wrapper.AbstractPacket;
+import dev.crystall.playernpclib.wrapper.BaseWrapperPlayServerEntityLook;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+
+public class WrapperPlayServerEntityLook extends AbstractPacket implements BaseWrapperPlayServerEntityLook {
+
+  public WrapperPlayServerEntityLook() {
+    super(new PacketContainer(PacketType.Play.Server.ENTITY_LOOK), PacketType.Play.Server.ENTITY_LOOK);
+    handle.getModifier().writeDefaults();
+  }
+
+  public WrapperPlayServerEntityLook(PacketContainer packet) {
+    super(packet, PacketType.Play.Server.ENTITY_LOOK);
+  }
+
+  @Override
+  public int getEntityID() {
+    return handle.getIntegers().read(0);
+  }
+
+  @Override
+  public void setEntityID(int value) {
+    handle.getIntegers().write(0, value);
+  }
+
+  @Override
+  public Entity getEntity(World world) {
+    return handle.getEntityModifier(world).read(0);
+  }
+
+  @Override
+  public Entity getEntity(PacketEvent event) {
+    return getEntity(event.getPlayer().getWorld());
+  }
+
+  @Override
+  public float getYaw() {
+    return (handle.getBytes().read(0) * 360.F) / 256.0F;
+  }
+
+  @Override
+  public void setYaw(float value) {
+    handle.getBytes().write(0, (byte) (value * 256.0F / 360.0F));
+  }
+
+  @Override
+  public float getPitch() {
+    return (handle.getBytes().read(1) * 360.F) / 256.0F;
+  }
+
+  @Override
+  public void setPitch(float value) {
+    handle.getBytes().write(1, (byte) (value * 256.0F / 360.0F));
+  }
+
+  @Override
+  public boolean getOnGround() {
+    return handle.getBooleans().read(0);
+  }
+
+  @Override
+  public void setOnGround(boolean value) {
+    handle.getBooleans().write(0, value);
+  }
+}
@@ -0,0 +1,101 @@
+package dev.crystall.playernpclib.nms_v1_17_R1.wrappers;
+
+import com.comphenix.protocol.PacketType;
+import com.comphenix.protocol.events.PacketContainer;
+import com.comphenix.protocol.events.PacketEvent;
+import dev.crystall.playernpclib.wrapper.AbstractPacket;
+import dev.crystall.playernpclib.wrapper.BaseWrapperPlayServerRelEntityMoveLook;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+
+public class WrapperPlayServerRelEntityMoveLook extends AbstractPacket implements BaseWrapperPlayServerRelEntityMoveLook {
+
+  public WrapperPlayServerRelEntityMoveLook() {
+    super(new PacketContainer(PacketType.Play.Server.REL_ENTITY_MOVE_LOOK), PacketType.Play.Server.REL_ENTITY_MOVE_LOOK);
+    handle.getModifier().writeDefaults();
+  }
+
+  public WrapperPlayServerRelEntityMoveLook(PacketContainer packet) {
+    super(packet, PacketType.Play.Server.REL_ENTITY_MOVE_LOOK);
+  }
+
+  @Override
+  public int getEntityID() {
+    return handle.getIntegers().read(0);
+  }
+
+  @Override
+  public void setEntityID(int value) {
+    handle.getIntegers().write(0, value);
+  }
+
+  @Override
+  public Entity getEntity(World world) {
+    return handle.getEntityModifier(world).read(0);
+  }
+
+  @Override
+  public Entity getEntity(PacketEvent event) {
+    return getEntity(event.getPlayer().getWorld());
+  }
+
+  @Override
+  public short getDx() {
+    return handle.getShorts().read(0);
+  }
+
+  @Override
+  public void setDx(short value) {
+    handle.getShorts().write(0, value);
+  }
+
+  @Override
+  public short getDy() {
+    return handle.getShorts().read(1);
+  }
+
+  @Override
+  public void setDy(short value) {
+    handle.getShorts().write(1, value);
+  }
+
+  @Override
+  public short getDz() {
+    return handle.getShorts().read(2);
+  }
+
+  @Override
+  public void setDz(short value) {
+    handle.getShorts().write(2, value);
+  }
+
+  @Override
+  public float getYaw() {
+    return (handle.getBytes().read(0) * 360.F) / 256.0F;
+  }
+
+  @Override
+  public void setYaw(float value) {
+    handle.getBytes().write(0, (byte) (value * 256.0F / 360.0F));
+  }
+
+  @Override
+  public float getPitch() {
+    return (handle.getBytes().read(1) * 360.F) / 256.0F;
+  }
+
+  @Override
+  public void setPitch(float value) {
+    handle.getBytes().write(1, (byte) (value * 256.0F / 360.0F));
+  }
+
+  @Override
+  public boolean getOnGround() {
+    return handle.getBooleans().read(0);
+  }
+
+  @Override
+  public void setOnGround(boolean value) {
+    handle.getBooleans().write(0, value);
+  }
+}
@@ -0,0 +1,81 @@
+package dev.crystall.playernpclib.nms_v1_18_R1.wrappers;
+
+import com.comphenix.protocol.PacketType;
+import com.comphenix.protocol.events.PacketContainer;
+import com.comphenix.protocol.events.PacketEvent;
+import dev.crystall.playernpclib.wrapper.AbstractPacket;
+import dev.crystall.playernpclib.wrapper.BaseWrapperPlayServerRelEntityMove;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+
+public class WrapperPlayServerRelEntityMove extends AbstractPacket implements BaseWrapperPlayServerRelEntityMove {
+
+  public WrapperPlayServerRelEntityMove() {
+    super(new PacketContainer(PacketType.Play.Server.REL_ENTITY_MOVE), PacketType.Play.Server.REL_ENTITY_MOVE);
+    handle.getModifier().writeDefaults();
+  }
+
+  public WrapperPlayServerRelEntityMove(PacketContainer packet) {
+    super(packet, PacketType.Play.Server.REL_ENTITY_MOVE);
+  }
+
+  @Override
+  public int getEntityID() {
+    return handle.getIntegers().read(0);
+  }
+
+  @Override
+  public void setEntityID(int value) {
+    handle.getIntegers().write(0, value);
+  }
+
+  @Override
+  public Entity getEntity(World world) {
+    return handle.getEntityModifier(world).read(0);
+  }
+
+  @Override
+  public Entity getEntity(PacketEvent event) {
+    return getEntity(event.getPlayer().getWorld());
+  }
+
+  @Override
+  public short getDx() {
+    return handle.getShorts().read(0);
+  }
+
+  @Override
+  public void setDx(short value) {
+    handle.getShorts().write(0, value);
+  }
+
+  @Override
+  public short getDy() {
+    return handle.getShorts().read(1);
+  }
+
+  @Override
+  public void setDy(short value) {
+    handle.getShorts().write(1, value);
+  }
+
+  @Override
+  public short getDz() {
+    return handle.getShorts().read(2);
+  }
+
+  @Override
+  public void setDz(short value) {
+    handle.getShorts().write(2, value);
+  }
+
+  @Override
+  public boolean getOnGround() {
+    return handle.getBooleans().read(0);
+  }
+
+  @Override
+  public void setOnGround(boolean value) {
+    handle.getBooleans().write(0, value);
+  }
+}
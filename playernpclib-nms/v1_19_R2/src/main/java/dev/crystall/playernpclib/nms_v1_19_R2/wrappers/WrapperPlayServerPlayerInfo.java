@@ -6,7 +6,9 @@ import com.comphenix.protocol.wrappers.EnumWrappers.PlayerInfoAction;
 import com.comphenix.protocol.wrappers.PlayerInfoData;
 import dev.crystall.playernpclib.wrapper.AbstractPacket;
 import dev.crystall.playernpclib.wrapper.BaseWrapperPlayServerPlayerInfo;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 public class WrapperPlayServerPlayerInfo extends AbstractPacket implements BaseWrapperPlayServerPlayerInfo {
 
@@ -21,22 +23,34 @@ public class WrapperPlayServerPlayerInfo extends AbstractPacket implements BaseW
 
   @Override
   public PlayerInfoAction getAction() {
-    return handle.getPlayerInfoAction().read(0);
+    Set<PlayerInfoAction> actions = getActions();
+    return actions.isEmpty() ? null : actions.iterator().next();
   }
 
   @Override
   public void setAction(PlayerInfoAction value) {
-    handle.getPlayerInfoAction().write(0, value);
+    setActions(EnumSet.of(value));
+  }
+
+  @Override
+  public Set<PlayerInfoAction> getActions() {
+    return handle.getPlayerInfoActions().read(0);
+  }
+
+  @Override
+  public void setActions(Set<PlayerInfoAction> value) {
+    handle.getPlayerInfoActions().write(0, value);
   }
 
   @Override
   public List<PlayerInfoData> getData() {
-    return handle.getPlayerInfoDataLists().read(0);
+    // The first list is the action set
+    return handle.getPlayerInfoDataLists().read(1);
   }
 
   @Override
   public void setData(List<PlayerInfoData> value) {
-    handle.getPlayerInfoDataLists().write(0, value);
+    handle.getPlayerInfoDataLists().write(1, value);
   }
 
 }
@@ -0,0 +1,31 @@
+package dev.crystall.playernpclib.nms_v1_20_R1.wrappers;
+
+import com.comphenix.protocol.PacketType;
+import com.comphenix.protocol.events.PacketContainer;
+import dev.crystall.playernpclib.wrapper.AbstractPacket;
+import dev.crystall.playernpclib.wrapper.BaseWrapperPlayServerPlayerInfoRemove;
+import java.util.List;
+import java.util.UUID;
+
+public class WrapperPlayServerPlayerInfoRemove extends AbstractPacket implements BaseWrapperPlayServerPlayerInfoRemove {
+
+  public WrapperPlayServerPlayerInfoRemove() {
+    super(new PacketContainer(PacketType.Play.Server.PLAYER_INFO_REMOVE), PacketType.Play.Server.PLAYER_INFO_REMOVE);
+    handle.getModifier().writeDefaults();
+  }
+
+  public WrapperPlayServerPlayerInfoRemove(PacketContainer packet) {
+    super(packet, PacketType.Play.Server.PLAYER_INFO_REMOVE);
+  }
+
+  @Override
+  public List<UUID> getPlayers() {
+    return handle.getUUIDLists().read(0);
+  }
+
+  @Override
+  public void setPlayers(List<UUID> value) {
+    handle.getUUIDLists().write(0, value);
+  }
+
+}
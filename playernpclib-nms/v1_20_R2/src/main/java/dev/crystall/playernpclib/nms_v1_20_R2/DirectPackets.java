@@ -0,0 +1,173 @@
+package dev.crystall.playernpclib.nms_v1_20_R2;
+
+import com.comphenix.protocol.utility.MinecraftMethods;
+import com.comphenix.protocol.utility.MinecraftReflection;
+import dev.crystall.playernpclib.wrapper.DirectPacketFactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import org.bukkit.entity.Player;
+
+/**
+ * Builds the relative move packets of 1.20.2 with their vanilla constructors and sends packets straight to the player connection. All handles
+ * are resolved once, if anything can not be found the fast path is not used at all.
+ * <p>
+ * Created by CrystallDEV on 18/10/2026
+ */
+@Slf4j
+public class DirectPackets implements DirectPacketFactory {
+
+  // Names of send(Packet) in the mojang and the older spigot mappings
+  private static final Set<String> SEND_METHOD_NAMES = Set.of("send", "sendPacket");
+
+  private final MethodHandle relEntityMove;
+  private final MethodHandle relEntityMoveLook;
+  private final MethodHandle entityLook;
+  private final MethodHandle getHandle;
+  private final MethodHandle getConnection;
+  private final MethodHandle send;
+
+  private DirectPackets(MethodHandle relEntityMove, MethodHandle relEntityMoveLook, MethodHandle entityLook, MethodHandle getHandle,
+    MethodHandle getConnection, MethodHandle send) {
+    this.relEntityMove = relEntityMove;
+    this.relEntityMoveLook = relEntityMoveLook;
+    this.entityLook = entityLook;
+    this.getHandle = getHandle;
+    this.getConnection = getConnection;
+    this.send = send;
+  }
+
+  /**
+   * @return the fast path or null if the server classes do not match
+   */
+  public static DirectPackets resolve() {
+    try {
+      MethodHandles.Lookup lookup = MethodHandles.lookup();
+      Class<?> relEntityMoveClass = MinecraftReflection.getMinecraftClass(
+        "network.protocol.game.PacketPlayOutEntity$PacketPlayOutRelEntityMove", "network.protocol.game.ClientboundMoveEntityPacket$Pos");
+      Class<?> relEntityMoveLookClass = MinecraftReflection.getMinecraftClass(
+        "network.protocol.game.PacketPlayOutEntity$PacketPlayOutRelEntityMoveLook", "network.protocol.game.ClientboundMoveEntityPacket$PosRot");
+      Class<?> entityLookClass = MinecraftReflection.getMinecraftClass(
+        "network.protocol.game.PacketPlayOutEntity$PacketPlayOutEntityLook", "network.protocol.game.ClientboundMoveEntityPacket$Rot");
+
+      MethodHandle relEntityMove = lookup.findConstructor(relEntityMoveClass,
+          MethodType.methodType(void.class, int.class, short.class, short.class, short.class, boolean.class))
+        .asType(MethodType.methodType(Object.class, int.class, short.class, short.class, short.class, boolean.class));
+      MethodHandle relEntityMoveLook = lookup.findConstructor(relEntityMoveLookClass,
+          MethodType.methodType(void.class, int.class, short.class, short.class, short.class, byte.class, byte.class, boolean.class))
+        .asType(MethodType.methodType(Object.class, int.class, short.class, short.class, short.class, byte.class, byte.class, boolean.class));
+      MethodHandle entityLook = lookup.findConstructor(entityLookClass,
+          MethodType.methodType(void.class, int.class, byte.class, byte.class, boolean.class))
+        .asType(MethodType.methodType(Object.class, int.class, byte.class, byte.class, boolean.class));
+
+      Class<?> craftPlayerClass = MinecraftReflection.getCraftPlayerClass();
+      Class<?> entityPlayerClass = MinecraftReflection.getEntityPlayerClass();
+      Class<?> connectionClass = MinecraftReflection.getPlayerConnectionClass();
+      MethodHandle getHandle = lookup.findVirtual(craftPlayerClass, "getHandle", MethodType.methodType(entityPlayerClass))
+        .asType(MethodType.methodType(Object.class, Player.class));
+      MethodHandle getConnection = lookup.unreflectGetter(findField(entityPlayerClass, connectionClass))
+        .asType(MethodType.methodType(Object.class, Object.class));
+      MethodHandle send = lookup.unreflect(findSendMethod(connectionClass, MinecraftReflection.getPacketClass()))
+        .asType(MethodType.methodType(void.class, Object.class, Object.class));
+
+      return new DirectPackets(relEntityMove, relEntityMoveLook, entityLook, getHandle, getConnection, send);
+    } catch (ReflectiveOperationException | RuntimeException exception) {
+      log.warn("Direct packet path is not available, falling back to ProtocolLib: {}", exception.toString());
+      return null;
+    }
+  }
+
+  @Override
+  public Object createRelEntityMove(int entityId, short dx, short dy, short dz, boolean onGround) {
+    try {
+      return (Object) relEntityMove.invokeExact(entityId, dx, dy, dz, onGround);
+    } catch (Throwable throwable) {
+      throw new IllegalStateException("Unable to create relative move packet", throwable);
+    }
+  }
+
+  @Override
+  public Object createRelEntityMoveLook(int entityId, short dx, short dy, short dz, byte yaw, byte pitch, boolean onGround) {
+    try {
+      return (Object) relEntityMoveLook.invokeExact(entityId, dx, dy, dz, yaw, pitch, onGround);
+    } catch (Throwable throwable) {
+      throw new IllegalStateException("Unable to create relative move look packet", throwable);
+    }
+  }
+
+  @Override
+  public Object createEntityLook(int entityId, byte yaw, byte pitch, boolean onGround) {
+    try {
+      return (Object) entityLook.invokeExact(entityId, yaw, pitch, onGround);
+    } catch (Throwable throwable) {
+      throw new IllegalStateException("Unable to create look packet", throwable);
+    }
+  }
+
+  @Override
+  public void send(Player player, Object packet) {
+    try {
+      Object connection = (Object) getConnection.invokeExact((Object) getHandle.invokeExact(player));
+      if (connection != null) {
+        send.invokeExact(connection, packet);
+      }
+    } catch (Throwable throwable) {
+      throw new IllegalStateException("Unable to send packet to " + player.getName(), throwable);
+    }
+  }
+
+  private static Field findField(Class<?> owner, Class<?> type) throws NoSuchFieldException {
+    for (Class<?> current = owner; current != null; current = current.getSuperclass()) {
+      for (Field field : current.getDeclaredFields()) {
+        if (field.getType() == type && !Modifier.isStatic(field.getModifiers())) {
+          field.setAccessible(true);
+          return field;
+        }
+      }
+    }
+    throw new NoSuchFieldException(type.getName() + " in " + owner.getName());
+  }
+
+  /**
+   * Finds the send(Packet) method of the connection by its name. Spigot mapped servers use obfuscated names, there the method ProtocolLib sends
+   * its own packets with is used.
+   */
+  private static Method findSendMethod(Class<?> connectionClass, Class<?> packetClass) throws NoSuchMethodException {
+    Method found = null;
+    for (Class<?> current = connectionClass; current != null; current = current.getSuperclass()) {
+      for (Method method : current.getDeclaredMethods()) {
+        if (!isSendMethod(method, packetClass) || !SEND_METHOD_NAMES.contains(method.getName())) {
+          continue;
+        }
+        // Overridden in a subclass, that one was found first
+        if (found != null && found.getName().equals(method.getName())) {
+          continue;
+        }
+        if (found != null) {
+          throw new NoSuchMethodException("send(Packet) is ambiguous in " + connectionClass.getName() + ": " + found.getName() + ", "
+            + method.getName());
+        }
+        found = method;
+      }
+    }
+    if (found != null) {
+      return found;
+    }
+    Method method = MinecraftMethods.getSendPacketMethod();
+    if (method == null || !method.getDeclaringClass().isAssignableFrom(connectionClass) || !isSendMethod(method, packetClass)) {
+      throw new NoSuchMethodException("send(Packet) in " + connectionClass.getName());
+    }
+    return method;
+  }
+
+  private static boolean isSendMethod(Method method, Class<?> packetClass) {
+    return method.getParameterCount() == 1 && method.getParameterTypes()[0] == packetClass && method.getReturnType() == void.class
+      && Modifier.isPublic(method.getModifiers()) && !Modifier.isStatic(method.getModifiers());
+  }
+
+}
@@ -0,0 +1,150 @@
+package dev.crystall.playernpclib.nms_v1_20_R2;
+
+import com.comphenix.protocol.events.PacketContainer;
+import dev.crystall.playernpclib.nms_v1_20_R2.wrappers.WrapperPlayClientUseEntity;
+import dev.crystall.playernpclib.nms_v1_20_R2.wrappers.WrapperPlayServerAnimation;
+import dev.crystall.playernpclib.nms_v1_20_R2.wrappers.WrapperPlayServerEntityDestroy;
+import dev.crystall.playernpclib.nms_v1_20_R2.wrappers.WrapperPlayServerEntityEquipment;
+import dev.crystall.playernpclib.nms_v1_20_R2.wrappers.WrapperPlayServerEntityHeadRotation;
+import dev.crystall.playernpclib.nms_v1_20_R2.wrappers.WrapperPlayServerEntityLook;
+import dev.crystall.playernpclib.nms_v1_20_R2.wrappers.WrapperPlayServerEntityMetadata;
+import dev.crystall.playernpclib.nms_v1_20_R2.wrappers.WrapperPlayServerEntityTeleport;
+import dev.crystall.playernpclib.nms_v1_20_R2.wrappers.WrapperPlayServerNamedEntitySpawn;
+import dev.crystall.playernpclib.nms_v1_20_R2.wrappers.WrapperPlayServerPlayerInfo;
+import dev.crystall.playernpclib.nms_v1_20_R2.wrappers.WrapperPlayServerPlayerInfoRemove;
+import dev.crystall.playernpclib.nms_v1_20_R2.wrappers.WrapperPlayServerRelEntityMove;
+import dev.crystall.playernpclib.nms_v1_20_R2.wrappers.WrapperPlayServerRelEntityMoveLook;
+import dev.crystall.playernpclib.nms_v1_20_R2.wrappers.WrapperPlayServerScoreboardTeam;
+import dev.crystall.playernpclib.wrapper.BaseWrapperPlayClientUseEntity;
+import dev.crystall.playernpclib.wrapper.BaseWrapperPlayServerAnimation;
+import dev.crystall.playernpclib.wrapper.BaseWrapperPlayServerEntityDestroy;
+import dev.crystall.playernpclib.wrapper.BaseWrapperPlayServerEntityEquipment;
+import dev.crystall.playernpclib.wrapper.BaseWrapperPlayServerEntityHeadRotation;
+import dev.crystall.playernpclib.wrapper.BaseWrapperPlayServerEntityLook;
+import dev.crystall.playernpclib.wrapper.BaseWrapperPlayServerEntityMetadata;
+import dev.crystall.playernpclib.wrapper.BaseWrapperPlayServerEntityTeleport;
+import dev.crystall.playernpclib.wrapper.BaseWrapperPlayServerNamedEntitySpawn;
+import dev.crystall.playernpclib.wrapper.BaseWrapperPlayServerPlayerInfo;
+import dev.crystall.playernpclib.wrapper.BaseWrapperPlayServerPlayerInfoRemove;
+import dev.crystall.playernpclib.wrapper.BaseWrapperPlayServerRelEntityMove;
+import dev.crystall.playernpclib.wrapper.BaseWrapperPlayServerRelEntityMoveLook;
+import dev.crystall.playernpclib.wrapper.BaseWrapperPlayServerScoreboardTeam;
+import dev.crystall.playernpclib.wrapper.DirectPacketFactory;
+import dev.crystall.playernpclib.wrapper.IBaseWrapper;
+import dev.crystall.playernpclib.wrapper.MinecraftVersions;
+import dev.crystall.playernpclib.wrapper.WrapperProvider;
+import java.util.List;
+
+/**
+ * Created by CrystallDEV on 18/10/2026
+ */
+public class VersionWrapperProvider implements WrapperProvider {
+
+  private DirectPacketFactory directPacketFactory;
+  private boolean directPacketFactoryResolved = false;
+
+  @Override
+  public MinecraftVersions getVersion() {
+    return MinecraftVersions.v1_20_R2;
+  }
+
+  @Override
+  public List<Class<? extends IBaseWrapper>> getWrapperClasses() {
+    return List.of(
+      WrapperPlayClientUseEntity.class,
+      WrapperPlayServerAnimation.class,
+      WrapperPlayServerEntityDestroy.class,
+      WrapperPlayServerEntityEquipment.class,
+      WrapperPlayServerEntityHeadRotation.class,
+      WrapperPlayServerEntityLook.class,
+      WrapperPlayServerEntityMetadata.class,
+      WrapperPlayServerEntityTeleport.class,
+      WrapperPlayServerNamedEntitySpawn.class,
+      WrapperPlayServerPlayerInfo.class,
+      WrapperPlayServerPlayerInfoRemove.class,
+      WrapperPlayServerRelEntityMove.class,
+      WrapperPlayServerRelEntityMoveLook.class,
+      WrapperPlayServerScoreboardTeam.class
+    );
+  }
+
+  @Override
+  public DirectPacketFactory getDirectPacketFactory() {
+    if (!directPacketFactoryResolved) {
+      directPacketFactory = DirectPackets.resolve();
+      directPacketFactoryResolved = true;
+    }
+    return directPacketFactory;
+  }
+
+  @Override
+  public BaseWrapperPlayClientUseEntity wrapUseEntity(PacketContainer packet) {
+    return new WrapperPlayClientUseEntity(packet);
+  }
+
+  @Override
+  public BaseWrapperPlayServerAnimation createAnimation() {
+    return new WrapperPlayServerAnimation();
+  }
+
+  @Override
+  public BaseWrapperPlayServerEntityDestroy createEntityDestroy() {
+    return new WrapperPlayServerEntityDestroy();
+  }
+
+  @Override
+  public BaseWrapperPlayServerEntityEquipment createEntityEquipment() {
+    return new WrapperPlayServerEntityEquipment();
+  }
+
+  @Override
+  public BaseWrapperPlayServerEntityHeadRotation createEntityHeadRotation() {
+    return new WrapperPlayServerEntityHeadRotation();
+  }
+
+  @Override
+  public BaseWrapperPlayServerEntityLook createEntityLook() {
+    return new WrapperPlayServerEntityLook();
+  }
+
+  @Override
+  public BaseWrapperPlayServerEntityMetadata createEntityMetadata() {
+    return new WrapperPlayServerEntityMetadata();
+  }
+
+  @Override
+  public BaseWrapperPlayServerEntityTeleport createEntityTeleport() {
+    return new WrapperPlayServerEntityTeleport();
+  }
+
+  @Override
+  public BaseWrapperPlayServerNamedEntitySpawn createNamedEntitySpawn() {
+    return new WrapperPlayServerNamedEntitySpawn();
+  }
+
+  @Override
+  public BaseWrapperPlayServerPlayerInfo createPlayerInfo() {
+    return new WrapperPlayServerPlayerInfo();
+  }
+
+  @Override
+  public BaseWrapperPlayServerPlayerInfoRemove createPlayerInfoRemove() {
+    return new WrapperPlayServerPlayerInfoRemove();
+  }
+
+  @Override
+  public BaseWrapperPlayServerRelEntityMove createRelEntityMove() {
+    return new WrapperPlayServerRelEntityMove();
+  }
+
+  @Override
+  public BaseWrapperPlayServerRelEntityMoveLook createRelEntityMoveLook() {
+    return new WrapperPlayServerRelEntityMoveLook();
+  }
+
+  @Override
+  public BaseWrapperPlayServerScoreboardTeam createScoreboardTeam() {
+    return new WrapperPlayServerScoreboardTeam();
+  }
+
+}